@@ -28,6 +28,9 @@ public class Bug implements Comparable {
     private final Set<MUPS> mupsSet;
     @Getter
     private final Set<Set<OWLAxiom>> diagnoses;
+    /* false if the search is stopped by a budget, so there may be other MUPSs and diagnoses */
+    @Getter
+    private volatile boolean complete = true;
 
     public static Bug emptyBug(OWLEntity entity) {
         return new Bug(entity, Collections.emptySet(), Collections.emptySet());
@@ -39,6 +42,13 @@ public class Bug implements Comparable {
         this.diagnoses = diagnoses;
     }
 
+    /**
+     * mark the bug as a partial result, its MUPSs and diagnoses are correct but they may not be all of them
+     */
+    public void markIncomplete() {
+        complete = false;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("Bug{");
@@ -57,6 +67,9 @@ public class Bug implements Comparable {
         sb.append(" TYPE3: ").append(mupsSet.stream().filter(mups -> mups.getType() == MUPSType.TYPE_3).count());
 
         sb.append(", # diagnoses: ").append(diagnoses.size());
+        if (!complete) {
+            sb.append(", INCOMPLETE");
+        }
         sb.append('}');
         return sb.toString();
     }
@@ -36,6 +36,13 @@ public class Configs {
     @Getter
     private MUPSFinderMethod MUPS_FINDER_METHOD = MUPSFinderMethod.FOURSTEPS;
     @Getter
+    private boolean VERIFY_GLASS_BOX_MUPS = true; // NOSONAR
+    @Getter
+    private boolean PARALLEL_SHRINK = false; // NOSONAR
+    /* 0 disables caching of satisfiability results */
+    @Getter
+    private int SATISFIABILITY_CACHE_SIZE = 10000; // NOSONAR
+    @Getter
     private BugFinderMethod BUG_FINDER_METHOD = BugFinderMethod.DF_HITSET;
     @Getter
     private boolean USE_GREEDY_ERROR_SEARCH = true; // NOSONAR
@@ -57,6 +64,33 @@ public class Configs {
     @Getter
     private boolean USE_MODULAR_ONTOLOGY_IN_BUG_FINDER = true; // NOSONAR
     @Getter
+    private boolean ANALYSE_ROOT_ENTITIES = false; // NOSONAR
+    @Getter
+    private boolean SHARE_MUPS_BETWEEN_ENTITIES = true; // NOSONAR
+    @Getter
+    private boolean ASYNC_TREE_EXPANSION = false; // NOSONAR
+    /* 0 means PDFHitSet forks at all depths of the tree */
+    @Getter
+    private int PARALLEL_TREE_DEPTH = 0; // NOSONAR
+    /* budgets of hitting set trees, 0 means no limit */
+    @Getter
+    private int MAX_TREE_NODES = 0; // NOSONAR
+    @Getter
+    private int MAX_DIAGNOSIS_CARDINALITY = 0; // NOSONAR
+    @Getter
+    private int ENTITY_TIME_LIMIT = 0; // NOSONAR
+    @Getter
+    private int BUG_FINDING_TIME_LIMIT = 0; // NOSONAR
+    /* number of the cheapest diagnoses found by CostHitSet for each entity, 0 means all of them */
+    @Getter
+    private int MAX_CHEAPEST_DIAGNOSES = 0; // NOSONAR
+    /* journal found bugs and tree checkpoints in RESULT_PATH, so a restarted run resumes from them */
+    @Getter
+    private boolean USE_BUG_JOURNAL = false; // NOSONAR
+    /* minimum seconds between two checkpoints of the tree of an entity */
+    @Getter
+    private int JOURNAL_CHECKPOINT_INTERVAL = 60; // NOSONAR
+    @Getter
     private boolean CHECK_PROFILE_ONTOLOGY_SATISFIABILITY = true; // NOSONAR
     @Getter
     private boolean DEBUG_CLASSES = false; // NOSONAR
@@ -124,10 +158,12 @@ public class Configs {
     private int readInt(String key, int defaultValue) {
         String temp = settings.getProperty(key);
         int value = defaultValue;
-        try {
-            value = Integer.valueOf(temp);
-        } catch (Exception ex) {
-            LOGGER.catching(ex);
+        if (temp != null) {
+            try {
+                value = Integer.valueOf(temp.trim());
+            } catch (Exception ex) {
+                LOGGER.catching(ex);
+            }
         }
         return value;
     }
@@ -236,11 +272,19 @@ public class Configs {
                 MUPS_FINDER_METHOD = MUPSFinderMethod.FOURSTEPS;
             } else if ("SWOOP".equalsIgnoreCase(temp)) {
                 MUPS_FINDER_METHOD = MUPSFinderMethod.SWOOP;
+            } else if ("QuickXplain".equalsIgnoreCase(temp)) {
+                MUPS_FINDER_METHOD = MUPSFinderMethod.QUICKXPLAIN;
+            } else if ("Locality".equalsIgnoreCase(temp)) {
+                MUPS_FINDER_METHOD = MUPSFinderMethod.LOCALITY;
+            } else if ("GlassBox".equalsIgnoreCase(temp)) {
+                MUPS_FINDER_METHOD = MUPSFinderMethod.GLASSBOX;
             } else {
                 LOGGER.error("MUPS finder method \"{}\" is not supported", temp);
             }
         }
 
+        VERIFY_GLASS_BOX_MUPS = readBoolean("VERIFY_GLASS_BOX_MUPS", VERIFY_GLASS_BOX_MUPS);
+
         temp = readString("BUG_FINDER_METHOD", "HitSet");
         if (temp != null) {
             temp = temp.trim();
@@ -256,6 +300,12 @@ public class Configs {
                 BUG_FINDER_METHOD = BugFinderMethod.HITSET_PLUS;
             } else if ("PHitSetPlus".equalsIgnoreCase(temp)) {
                 BUG_FINDER_METHOD = BugFinderMethod.PARALLEL_HITSET_PLUS;
+            } else if ("CostHitSet".equalsIgnoreCase(temp)) {
+                BUG_FINDER_METHOD = BugFinderMethod.COST_HITSET;
+            } else if ("FastDiag".equalsIgnoreCase(temp)) {
+                BUG_FINDER_METHOD = BugFinderMethod.DIRECT_DIAGNOSIS;
+            } else if ("Coherence".equalsIgnoreCase(temp)) {
+                BUG_FINDER_METHOD = BugFinderMethod.COHERENCE;
             } else {
                 LOGGER.error("Bug finder method \"{}\" is not supported", temp);
             }
@@ -263,9 +313,24 @@ public class Configs {
 
         NUMBER_OF_THREADS = readInt("NUMBER_OF_THREADS", NUMBER_OF_THREADS);
 
+        PARALLEL_SHRINK = readBoolean("PARALLEL_SHRINK", PARALLEL_SHRINK);
+
+        SATISFIABILITY_CACHE_SIZE = readInt("SATISFIABILITY_CACHE_SIZE", SATISFIABILITY_CACHE_SIZE);
+
         SINGLE_THREAD_REASONING = readBoolean("SINGLE_THREAD_REASONING", SINGLE_THREAD_REASONING);
 
         USE_MODULAR_ONTOLOGY_IN_BUG_FINDER = readBoolean("USE_MODULAR_ONTOLOGY_IN_BUG_FINDER", USE_MODULAR_ONTOLOGY_IN_BUG_FINDER);
+        ANALYSE_ROOT_ENTITIES = readBoolean("ANALYSE_ROOT_ENTITIES", ANALYSE_ROOT_ENTITIES);
+        SHARE_MUPS_BETWEEN_ENTITIES = readBoolean("SHARE_MUPS_BETWEEN_ENTITIES", SHARE_MUPS_BETWEEN_ENTITIES);
+        ASYNC_TREE_EXPANSION = readBoolean("ASYNC_TREE_EXPANSION", ASYNC_TREE_EXPANSION);
+        PARALLEL_TREE_DEPTH = readInt("PARALLEL_TREE_DEPTH", PARALLEL_TREE_DEPTH);
+        MAX_TREE_NODES = readInt("MAX_TREE_NODES", MAX_TREE_NODES);
+        MAX_DIAGNOSIS_CARDINALITY = readInt("MAX_DIAGNOSIS_CARDINALITY", MAX_DIAGNOSIS_CARDINALITY);
+        ENTITY_TIME_LIMIT = readInt("ENTITY_TIME_LIMIT", ENTITY_TIME_LIMIT);
+        BUG_FINDING_TIME_LIMIT = readInt("BUG_FINDING_TIME_LIMIT", BUG_FINDING_TIME_LIMIT);
+        MAX_CHEAPEST_DIAGNOSES = readInt("MAX_CHEAPEST_DIAGNOSES", MAX_CHEAPEST_DIAGNOSES);
+        USE_BUG_JOURNAL = readBoolean("USE_BUG_JOURNAL", USE_BUG_JOURNAL);
+        JOURNAL_CHECKPOINT_INTERVAL = readInt("JOURNAL_CHECKPOINT_INTERVAL", JOURNAL_CHECKPOINT_INTERVAL);
 
         CHECK_PROFILE_ONTOLOGY_SATISFIABILITY = readBoolean("CHECK_PROFILE_ONTOLOGY_SATISFIABILITY", CHECK_PROFILE_ONTOLOGY_SATISFIABILITY);
 
@@ -7,8 +7,13 @@ import ir.ac.ui.ontodebugger.errordetectors.*;
 import ir.ac.ui.ontodebugger.evaluation.ErrorSetEvaluator;
 import ir.ac.ui.ontodebugger.evaluation.Evaluation;
 import ir.ac.ui.ontodebugger.mups.BugFinder;
+import ir.ac.ui.ontodebugger.mups.BugJournal;
+import ir.ac.ui.ontodebugger.mups.CoherenceBugFinder;
+import ir.ac.ui.ontodebugger.mups.CostGuidedHitSetBugFinder;
 import ir.ac.ui.ontodebugger.mups.DFHitSetBugFinder;
+import ir.ac.ui.ontodebugger.mups.DirectDiagnosisBugFinder;
 import ir.ac.ui.ontodebugger.mups.HitSetBugFinder;
+import ir.ac.ui.ontodebugger.mups.HitSetPlusBugFinder;
 import ir.ac.ui.ontodebugger.mups.PDFHitSetBugFinder;
 import ir.ac.ui.ontodebugger.util.MultiThreadProcess;
 import ir.ac.ui.ontodebugger.util.OntologyHelper;
@@ -214,7 +219,7 @@ public class OntoDebugger {
         BugList bugList;
 
         onto2debugged.getOWLOntologyManager().removeAxioms(onto2debugged, initialErrors);
-        bugList = getBugList(onto2debugged);
+        bugList = getBugList(onto2debugged, FilenameUtils.getName(ontologyPath));
 
         if (!bugList.isEmpty()) {
             bugList.getBlackList().addAll(initialErrors);
@@ -295,7 +300,7 @@ public class OntoDebugger {
         }
     }
 
-    private BugList getBugList(OWLOntology ont) {
+    private BugList getBugList(OWLOntology ont, String journalName) {
         Timer timer = Timer.start("Finding MUPSs");
 
         BugFinder bugFinder;
@@ -309,6 +314,22 @@ public class OntoDebugger {
             case HITSET:
                 bugFinder = new HitSetBugFinder(profile, buggyOntology, false, false);
                 break;
+            case HITSET_PLUS:
+                bugFinder = new HitSetPlusBugFinder(profile, buggyOntology, false, false);
+                break;
+            case PARALLEL_HITSET_PLUS:
+                bugFinder = new HitSetPlusBugFinder(profile, buggyOntology, true, false);
+                break;
+            case COST_HITSET:
+                bugFinder = new CostGuidedHitSetBugFinder(profile, buggyOntology, axiomRankers.isEmpty() ? null : axiomRankers.get(0),
+                        Configs.getInstance().getMAX_CHEAPEST_DIAGNOSES());
+                break;
+            case DIRECT_DIAGNOSIS:
+                bugFinder = new DirectDiagnosisBugFinder(profile, buggyOntology);
+                break;
+            case COHERENCE:
+                bugFinder = new CoherenceBugFinder(profile, buggyOntology);
+                break;
             case PARALLEL_HITSET:
             default:
                 bugFinder = new HitSetBugFinder(profile, buggyOntology, true, false);
@@ -316,6 +337,12 @@ public class OntoDebugger {
 
         }
 
+        if (Configs.getInstance().isUSE_BUG_JOURNAL()) {
+            // file name with its extension is used, so journals of the lonely and merged ontologies are not mixed
+            final String journalPath = FilenameUtils.concat(Configs.getInstance().getRESULT_PATH(), journalName + "-journal.txt");
+            bugFinder.setJournal(new BugJournal(new File(journalPath), Configs.getInstance().getJOURNAL_CHECKPOINT_INTERVAL()));
+        }
+
         List<Bug> bugs = bugFinder.findBugs(ont);
 
         timer.stopAndPrint();
@@ -19,12 +19,12 @@ public abstract class AxiomRanker {
     public AxiomRanker() {
     }
 
-    protected void init(OWLOntology ont, BugList bugs) {
+    public void init(OWLOntology ont, BugList bugs) {
         this.bugs = bugs;
         this.ont = ont;
     }
 
-    protected void fini() {
+    public void fini() {
 
     }
 
@@ -35,7 +35,7 @@ public abstract class AxiomRanker {
      * @param axiom
      * @return cost as a double value
      */
-    protected abstract double getAxiomCost(OWLAxiom axiom);
+    public abstract double getAxiomCost(OWLAxiom axiom);
 
     @Override
     public String toString() {
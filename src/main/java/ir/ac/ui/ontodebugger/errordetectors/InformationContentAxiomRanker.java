@@ -30,7 +30,7 @@ public class InformationContentAxiomRanker extends AxiomRanker {
     }
 
     @Override
-    protected void init(OWLOntology ont, BugList bugs) {
+    public void init(OWLOntology ont, BugList bugs) {
         super.init(ont, bugs);
         icMap.clear();
         try {
@@ -41,13 +41,17 @@ public class InformationContentAxiomRanker extends AxiomRanker {
         } catch (OWLOntologyCreationException e) {
             LOGGER.catching(e);
         }
-
     }
 
     @Override
-    protected void fini() {
+    public void fini() {
+        if (reasoner != null) {
+            reasoner.dispose();
+            reasoner = null;
+        }
         if (ontology != null) {
             manager.removeOntology(ontology);
+            ontology = null;
         }
     }
 
@@ -95,16 +99,19 @@ public class InformationContentAxiomRanker extends AxiomRanker {
     }
 
     @Override
-    protected double getAxiomCost(OWLAxiom axiom) {
+    public double getAxiomCost(OWLAxiom axiom) {
 
         double beforeIC = axiom.getSignature().stream().mapToDouble(entity -> getEntityIC(entity, true)).sum();
 
+        double afterIC;
         manager.removeAxiom(ontology, axiom);
-        reasoner.flush();
-        double afterIC = axiom.getSignature().stream().mapToDouble(this::getEntityIC).sum();
-
-        manager.addAxiom(ontology, axiom);
-        reasoner.flush();
+        try {
+            reasoner.flush();
+            afterIC = axiom.getSignature().stream().mapToDouble(this::getEntityIC).sum();
+        } finally {
+            manager.addAxiom(ontology, axiom);
+            reasoner.flush();
+        }
 
         return beforeIC - afterIC;
     }
@@ -25,12 +25,12 @@ public class ProfileSupportAxiomRanker extends AxiomRanker {
     }
 
     @Override
-    protected void fini() {
+    public void fini() {
         super.fini();
     }
 
     @Override
-    protected double getAxiomCost(OWLAxiom axiom) {
+    public double getAxiomCost(OWLAxiom axiom) {
         return getAxiomSupport(axiom);
     }
 
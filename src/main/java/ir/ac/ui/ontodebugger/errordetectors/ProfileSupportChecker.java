@@ -69,10 +69,16 @@ public class ProfileSupportChecker {
             return SupportStatus.AXIOM_ENTAILED;
         } else {
             int initUnSatClasses = reasoner.getUnsatisfiableClasses().getSize();
+            boolean negationEntailed;
             manager.addAxiom(ontology, axiom);
-            reasoner.flush();
-            boolean negationEntailed = !reasoner.isConsistent() || reasoner.getUnsatisfiableClasses().getSize() != initUnSatClasses;
-            manager.removeAxiom(ontology, axiom);
+            try {
+                reasoner.flush();
+                negationEntailed = !reasoner.isConsistent() || reasoner.getUnsatisfiableClasses().getSize() != initUnSatClasses;
+            } finally {
+                // the ontology is used by the next checks
+                manager.removeAxiom(ontology, axiom);
+                reasoner.flush();
+            }
             if (negationEntailed) {
                 return SupportStatus.NEGATION_ENTAILED;
             } else {
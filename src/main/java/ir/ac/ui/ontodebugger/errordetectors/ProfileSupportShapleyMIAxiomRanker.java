@@ -20,13 +20,13 @@ public class ProfileSupportShapleyMIAxiomRanker extends ProfileSupportAxiomRanke
     }
 
     @Override
-    protected void init(OWLOntology ont, BugList bugs) {
+    public void init(OWLOntology ont, BugList bugs) {
         super.init(ont, bugs);
         shapleyMI.init(ont, bugs);
     }
 
     @Override
-    protected void fini() {
+    public void fini() {
         super.fini();
         shapleyMI.fini();
     }
@@ -17,7 +17,7 @@ public class ShapleyMIAxiomRanker extends AxiomRanker {
     }
 
     @Override
-    protected double getAxiomCost(OWLAxiom axiom) {
+    public double getAxiomCost(OWLAxiom axiom) {
         final double v = bugs.getMUPSContainsAxiom(axiom).stream().mapToDouble(m -> 1.0 / m.size()).sum();
         return 1 / v;
     }
@@ -24,13 +24,13 @@ public class ShapleySupportAxiomRanker extends ProfileSupportAxiomRanker {
     }
 
     @Override
-    protected void init(OWLOntology ont, BugList bugs) {
+    public void init(OWLOntology ont, BugList bugs) {
         super.init(ont, bugs);
         shapleyMI.init(ont, bugs);
     }
 
     @Override
-    protected void fini() {
+    public void fini() {
         super.fini();
         shapleyMI.fini();
     }
@@ -41,7 +41,7 @@ public class ShapleySupportAxiomRanker extends ProfileSupportAxiomRanker {
     }
 
     @Override
-    protected double getAxiomCost(OWLAxiom axiom) {
+    public double getAxiomCost(OWLAxiom axiom) {
         final double support = super.getAxiomCost(axiom);
         final double shapley = shapleyMI.getAxiomCost(axiom);
         if (support >= 0) {
@@ -21,6 +21,7 @@ import java.util.Set;
 public class SwoopAxiomRanker extends AxiomRanker {
     private static final Logger LOGGER = LogManager.getLogger(SwoopAxiomRanker.class);
 
+    private OWLOntology copy;
     private OWLReasoner reasoner;
 
     private double maxImpact = Double.MAX_VALUE;
@@ -63,6 +64,7 @@ public class SwoopAxiomRanker extends AxiomRanker {
         OWLOntology ontology = ont;
         try {
             ontology = manager.createOntology(ont.getAxioms());
+            copy = ontology;
         } catch (OWLOntologyCreationException e) {
             LOGGER.catching(e);
         }
@@ -72,7 +74,20 @@ public class SwoopAxiomRanker extends AxiomRanker {
     }
 
     @Override
-    protected double getAxiomCost(OWLAxiom axiom) {
+    public void fini() {
+        super.fini();
+        if (reasoner != null) {
+            reasoner.dispose();
+            reasoner = null;
+        }
+        if (copy != null) {
+            copy.getOWLOntologyManager().removeOntology(copy);
+            copy = null;
+        }
+    }
+
+    @Override
+    public double getAxiomCost(OWLAxiom axiom) {
         double cost;
         final double freq = calculateFreq(axiom);
         final double impact = calculateImpact(axiom);
@@ -4,10 +4,15 @@ import ir.ac.ui.ontodebugger.Bug;
 import ir.ac.ui.ontodebugger.Configs;
 import ir.ac.ui.ontodebugger.KnowledgeBaseProfile;
 import ir.ac.ui.ontodebugger.reasoner.ReasonerFactory;
+import ir.ac.ui.ontodebugger.util.AxiomBitSet;
+import ir.ac.ui.ontodebugger.util.AxiomDictionary;
+import ir.ac.ui.ontodebugger.util.HittingSets;
 import ir.ac.ui.ontodebugger.util.MultiThreadProcess;
+import ir.ac.ui.ontodebugger.util.OntologyFork;
 import ir.ac.ui.ontodebugger.util.OntologyHelper;
 import ir.ac.ui.ontodebugger.util.Renderer;
 import ir.ac.ui.ontodebugger.util.Timer;
+import lombok.Setter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.semanticweb.owlapi.apibinding.OWLManager;
@@ -17,7 +22,11 @@ import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +41,21 @@ public abstract class BugFinder {
     private final AtomicInteger remainedCounter = new AtomicInteger();
     private final AtomicInteger activeAnalysisCounter = new AtomicInteger();
     private final MUPSFinder mupsFinder;
+    protected final SatisfiabilityCache satisfiabilityCache;
+    private final MUPSStore mupsStore;
+    /* module clusters of the current run by the entities of their signatures, entities of a cluster share its workspaces */
+    private final Map<OWLEntity, ModuleCluster> clusters = new ConcurrentHashMap<>();
+    /* entities of the current run which are not finished yet, a cluster is disposed when its last entity is finished */
+    private final Set<OWLEntity> pendingEntities = ConcurrentHashMap.newKeySet();
+    /* cluster forks of the workspace ontologies which are analysed now, trees fork them to reuse warm workspaces */
+    private final Map<OWLOntology, OntologyFork> analysedForks = new ConcurrentHashMap<>();
+    /* entity to axioms indexes of the ontologies of the current run, modules are extracted by walking them */
+    private final Map<OWLOntology, Map<OWLEntity, List<OWLAxiom>>> signatureIndexes = new ConcurrentHashMap<>();
+    /* deadline of the current run in System.nanoTime() */
+    private volatile long runDeadline = Long.MAX_VALUE;
+    /* journal of found bugs and tree checkpoints, null means the run is not journaled */
+    @Setter
+    private BugJournal journal;
 
     /**
      * Construct a Bug Finder
@@ -44,10 +68,23 @@ public abstract class BugFinder {
         this.profile = profile;
         this.ontology = ontology;
 
+        final int cacheSize = Configs.getInstance().getSATISFIABILITY_CACHE_SIZE();
+        satisfiabilityCache = cacheSize > 0 ? new SatisfiabilityCache(cacheSize) : null;
+        mupsStore = Configs.getInstance().isSHARE_MUPS_BETWEEN_ENTITIES() ? new MUPSStore() : null;
+
         switch (Configs.getInstance().getMUPS_FINDER_METHOD()) {
+            case QUICKXPLAIN:
+                mupsFinder = new QuickXplainMUPSFinder(satisfiabilityCache);
+                break;
+            case LOCALITY:
+                mupsFinder = new LocalityModuleMUPSFinder(satisfiabilityCache);
+                break;
+            case GLASSBOX:
+                mupsFinder = new GlassBoxMUPSFinder(Configs.getInstance().isVERIFY_GLASS_BOX_MUPS(), satisfiabilityCache);
+                break;
             case SWOOP:
             default:
-                mupsFinder = new SwoopMUPSFinder();
+                mupsFinder = new SwoopMUPSFinder(satisfiabilityCache);
                 break;
         }
     }
@@ -59,11 +96,94 @@ public abstract class BugFinder {
      * @return List of Bugs detected
      */
     public List<Bug> findBugs(OWLOntology ont) {
-        Set<OWLEntity> unsatEntities = new HashSet<>();
+        Set<OWLEntity> unsatEntities = getUnsatisfiableEntities(ont);
         Map<OWLAxiom, OWLAxiom> propertyClassAxioms = new ConcurrentHashMap<>();
 
-        OWLReasoner reasoner = ReasonerFactory.getReasoner(ont);
+        startRun(ont, unsatEntities);
+        if (journal != null) {
+            journal.open(ont);
+        }
+
+        // don't return bugs with empty diagnosis, which means there is no axiom from buggy ontology in it
+        final List<Bug> bugs = findBugs(ont, unsatEntities, propertyClassAxioms).stream().filter(Objects::nonNull).collect(Collectors.toList());
+        if (journal != null) {
+            journal.close();
+        }
+        finishRun();
+        return bugs;
+    }
 
+    /**
+     * Update bugs of an ontology after some axioms are added to or removed from it, instead of finding them from scratch.
+     * <p>
+     * MUPSs of the previous bugs which don't include removed axioms are still MUPSs, since minimality of a MUPS
+     * doesn't depend on the other axioms. If the previous bug of an entity is complete and no axiom is added to
+     * its module, they are all of its MUPSs and its diagnoses are computed from them without reasoning.
+     * Otherwise its tree is built with them as already found MUPSs, so the reasoner is called only for paths
+     * hitting all of them, i.e. the previous diagnoses, and for the new subtrees below them.
+     *
+     * @param ont          the edited ontology
+     * @param previousBugs bugs of the ontology before the edit
+     * @param added        axioms added to the ontology
+     * @param removed      axioms removed from the ontology
+     * @return List of Bugs of the edited ontology
+     */
+    public List<Bug> updateBugs(OWLOntology ont, Collection<Bug> previousBugs, Set<OWLAxiom> added, Set<OWLAxiom> removed) {
+        final Set<OWLEntity> unsatEntities = getUnsatisfiableEntities(ont);
+        final Map<OWLAxiom, OWLAxiom> propertyClassAxioms = new ConcurrentHashMap<>();
+        final Map<OWLEntity, Bug> previous = new HashMap<>();
+        previousBugs.forEach(bug -> previous.put(bug.getEntity(), bug));
+        LOGGER.info("Updating bugs after {} added and {} removed axioms, previous Bugs: {}", added.size(), removed.size(), previous.size());
+
+        startRun(ont, unsatEntities);
+        final List<Bug> bugs = getBugs(unsatEntities, entity -> updateBug(ont, propertyClassAxioms, entity, previous.get(entity), added, removed))
+                .stream().filter(Objects::nonNull).collect(Collectors.toList());
+        finishRun();
+        return bugs;
+    }
+
+    private Bug updateBug(OWLOntology ont, Map<OWLAxiom, OWLAxiom> propertyClassAxioms, OWLEntity entity, Bug previousBug,
+                          Set<OWLAxiom> added, Set<OWLAxiom> removed) {
+        if (previousBug == null) {
+            // the entity is unsatisfiable because of the added axioms
+            return getBug(ont, propertyClassAxioms, entity);
+        }
+        final Set<MUPS> validMUPSs = previousBug.getMupsSet().stream().filter(mups -> mups.stream().noneMatch(removed::contains))
+                .collect(Collectors.toSet());
+        final OntologyFork moduleFork = getModuleFork(ont, entity);
+        if (previousBug.isComplete() && !validMUPSs.isEmpty() && added.stream().noneMatch(moduleFork::containsAxiom)) {
+            final Bug bug = new Bug(entity, validMUPSs, HittingSets.minimal(validMUPSs, Comparator.naturalOrder()));
+            LOGGER.info("Bug of {} is updated without reasoning: {}, remained Bugs: {}", entity, bug, remainedCounter.decrementAndGet());
+            return bug;
+        }
+        LOGGER.debug("{} of {} MUPSs of {} are still valid, its tree is built again", validMUPSs.size(), previousBug.getMupsSet().size(), entity);
+        return getBug(ont, propertyClassAxioms, entity, validMUPSs);
+    }
+
+    /**
+     * called before bugs of an ontology are searched, e.g. to initialize the state used by findBug
+     */
+    protected void startRun(OWLOntology ont, Set<OWLEntity> unsatEntities) {
+        remainedCounter.set(unsatEntities.size());
+        pendingEntities.addAll(unsatEntities);
+        final int timeLimit = Configs.getInstance().getBUG_FINDING_TIME_LIMIT();
+        runDeadline = timeLimit > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeLimit) : Long.MAX_VALUE;
+    }
+
+    /**
+     * called after bugs of an ontology are found
+     */
+    protected void finishRun() {
+        // clusters are disposed by their last entity, it disposes the clusters of entities which are not finished
+        new HashSet<>(clusters.values()).forEach(cluster -> cluster.fork.dispose());
+        clusters.clear();
+        pendingEntities.clear();
+        signatureIndexes.clear();
+    }
+
+    private Set<OWLEntity> getUnsatisfiableEntities(OWLOntology ont) {
+        Set<OWLEntity> unsatEntities = new HashSet<>();
+        OWLReasoner reasoner = ReasonerFactory.getReasoner(ont);
 
         if (Configs.getInstance().isDEBUG_CLASSES()) {
             final Set<OWLClass> unsatisfiableClasses = reasoner.getUnsatisfiableClasses().getEntitiesMinusBottom();
@@ -78,32 +198,194 @@ public abstract class BugFinder {
         }
 
         LOGGER.info("Unsatisfiable Entities: {}", unsatEntities.size());
-        remainedCounter.set(unsatEntities.size());
-
-        // don't return bugs with empty diagnosis, which means there is no axiom from buggy ontology in it
-        return findBugs(ont, unsatEntities, propertyClassAxioms).stream().filter(Objects::nonNull).collect(Collectors.toList());
+        return unsatEntities;
     }
 
     protected List<Bug> findBugs(OWLOntology ont, Set<OWLEntity> unsatEntities, Map<OWLAxiom, OWLAxiom> propertyClassAxioms) {
+        if (!Configs.getInstance().isANALYSE_ROOT_ENTITIES()) {
+            return getBugs(unsatEntities, cla -> getBug(ont, propertyClassAxioms, cla));
+        }
+
+        // hitting set trees are built only for root entities, bugs of derived entities are composed level by level
+        final RootEntityAnalyser analyser = new RootEntityAnalyser(ont, unsatEntities);
+        final Map<OWLEntity, Bug> foundBugs = new ConcurrentHashMap<>();
+        final List<Bug> bugs = getBugs(analyser.getRoots(), cla -> getBug(ont, propertyClassAxioms, cla));
+        bugs.stream().filter(Objects::nonNull).forEach(bug -> foundBugs.put(bug.getEntity(), bug));
+
+        for (Set<OWLEntity> level : analyser.getDerivedLevels()) {
+            final List<Bug> derivedBugs = getBugs(level, cla -> getDerivedBug(ont, propertyClassAxioms, cla, analyser, foundBugs));
+            derivedBugs.stream().filter(Objects::nonNull).forEach(bug -> foundBugs.put(bug.getEntity(), bug));
+            bugs.addAll(derivedBugs);
+        }
+        return bugs;
+    }
+
+    private List<Bug> getBugs(Set<OWLEntity> entities, Function<OWLEntity, Bug> bugFunction) {
         List<Bug> bugs = new ArrayList<>();
+        final Function<OWLEntity, Bug> finishingFunction = entity -> {
+            try {
+                return bugFunction.apply(entity);
+            } finally {
+                finishEntity(entity);
+            }
+        };
         if (Configs.getInstance().isSINGLE_THREAD_REASONING()) {
-            unsatEntities.stream().map(cla -> getBug(ont, propertyClassAxioms, cla)).forEach(bugs::add);
+            entities.stream().map(finishingFunction).forEach(bugs::add);
         } else {
             MultiThreadProcess.runAndWait(() ->
-                    unsatEntities.parallelStream().map(cla -> getBug(ont, propertyClassAxioms, cla)).forEach(bugs::add));
+                    bugs.addAll(entities.parallelStream().map(finishingFunction).collect(Collectors.toList())));
         }
 
         return bugs;
     }
 
+    /**
+     * Compose bug of a derived entity from bug of its unsatisfiable told parent.
+     * Diagnoses of the entity are the diagnoses of the parent plus the linking axiom,
+     * they are accepted only if removing each of them makes the entity satisfiable.
+     * Otherwise (e.g. the entity has other reasons of unsatisfiability) its own hitting set tree is built.
+     */
+    private Bug getDerivedBug(OWLOntology ont, Map<OWLAxiom, OWLAxiom> propertyClassAxioms, OWLEntity entity,
+                              RootEntityAnalyser analyser, Map<OWLEntity, Bug> foundBugs) {
+        final OWLEntity parent = analyser.getParent(entity);
+        final Bug parentBug = foundBugs.get(parent);
+        if (parentBug != null && !parentBug.getMupsSet().isEmpty()) {
+            final OWLAxiom link = analyser.getLink(entity);
+            final Set<Set<OWLAxiom>> diagnoses = analyser.composeDiagnoses(entity, parentBug.getDiagnoses());
+            if (verifyDiagnoses(ont, entity, diagnoses)) {
+                final Set<MUPS> mupsSet = new HashSet<>();
+                parentBug.getMupsSet().forEach(parentMUPS -> {
+                    final Set<OWLAxiom> axioms = new HashSet<>(parentMUPS);
+                    axioms.add(link);
+                    mupsSet.add(MUPS.build(entity, axioms, profile, ontology));
+                });
+                final Bug bug = new Bug(entity, mupsSet, diagnoses);
+                bug.replaceAxioms(propertyClassAxioms);
+                if (!parentBug.isComplete()) {
+                    bug.markIncomplete();
+                }
+                LOGGER.info("New Bug derived from {}: {}, remained Bugs: {}", parent, bug, remainedCounter.decrementAndGet());
+                return bug;
+            }
+            LOGGER.debug("Composed diagnoses of {} are not verified, its hitting set tree is built", entity);
+        }
+        return getBug(ont, propertyClassAxioms, entity);
+    }
+
+    /**
+     * @return true if removing each of the diagnoses makes the entity satisfiable within its module
+     */
+    private boolean verifyDiagnoses(OWLOntology ont, OWLEntity entity, Set<Set<OWLAxiom>> diagnoses) {
+        final OntologyFork moduleFork = getModuleFork(ont, entity);
+        final PerformanceLog log = new PerformanceLog();
+        for (Set<OWLAxiom> diagnosis : diagnoses) {
+            try (OntologyFork.Workspace workspace = moduleFork.remove(diagnosis).checkout()) {
+                if (!new SatisfiabilityOracle(workspace.getReasoner(), log, satisfiabilityCache).isSatisfiable(entity))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return root fork of the module cluster of the entity, its workspaces are shared by all entities of the cluster
+     */
+    protected OntologyFork getModuleFork(OWLOntology ont, OWLEntity entity) {
+        return getCluster(ont, entity).fork;
+    }
+
+    /**
+     * called when the bug of an entity of the run is found, the cluster of the entity is disposed if it is the last
+     * pending entity of it, so workspaces of the finished clusters are not kept until the end of the run
+     */
+    protected synchronized void finishEntity(OWLEntity entity) {
+        if (!pendingEntities.remove(entity))
+            return;
+        final ModuleCluster cluster = clusters.get(entity);
+        if (cluster != null && --cluster.pendingCount == 0) {
+            LOGGER.debug("Module cluster of {} axioms is finished, its workspaces are disposed", cluster.axioms.size());
+            cluster.fork.dispose();
+        }
+    }
+
+    private ModuleCluster getCluster(OWLOntology ont, OWLEntity entity) {
+        final ModuleCluster cluster = clusters.get(entity);
+        return cluster != null ? cluster : extractCluster(ont, entity);
+    }
+
+    /**
+     * Extract the module of the entity and map entities of its signature to it.
+     * Modules are closed under shared entities, i.e. a module includes all of the axioms of each entity of its
+     * signature, so modules of two entities either are equal or don't overlap, and the module of an entity in the
+     * signature of an extracted module is that module. So clusters of entities with overlapping modules are found
+     * without extracting the module of each entity and merging them.
+     */
+    private synchronized ModuleCluster extractCluster(OWLOntology ont, OWLEntity entity) {
+        ModuleCluster cluster = clusters.get(entity);
+        if (cluster != null)
+            return cluster;
+        if (!Configs.getInstance().isUSE_MODULAR_ONTOLOGY_IN_BUG_FINDER()) {
+            // all of the entities share the whole ontology
+            cluster = clusters.values().stream().findAny().orElse(null);
+            if (cluster == null) {
+                cluster = new ModuleCluster(ont.getAxioms());
+                final ModuleCluster sharedCluster = cluster;
+                pendingEntities.forEach(e -> clusters.put(e, sharedCluster));
+                cluster.pendingCount = pendingEntities.size();
+            }
+            clusters.put(entity, cluster);
+            return cluster;
+        }
+
+        final ModuleCluster newCluster = new ModuleCluster(getModuleAxioms(ont, entity));
+        final Set<OWLEntity> topBottom = getTopBottomEntities();
+        // pending entities of the run are counted as they are mapped to the cluster
+        newCluster.axioms.forEach(axiom -> axiom.getSignature().stream().filter(e -> !topBottom.contains(e))
+                .filter(e -> clusters.putIfAbsent(e, newCluster) == null).filter(pendingEntities::contains)
+                .forEach(e -> newCluster.pendingCount++));
+        if (clusters.put(entity, newCluster) != newCluster && pendingEntities.contains(entity)) {
+            newCluster.pendingCount++;
+        }
+        LOGGER.debug("New module cluster of {} axioms is extracted for {}, clustered entities: {}", newCluster.axioms.size(), entity, clusters.size());
+        return newCluster;
+    }
+
+    /**
+     * @param ont ontology given to findBug
+     * @return root fork of the trees of the ontology, it shares the warm workspaces of the module cluster if the
+     * ontology is a workspace of it, it should be released by {@link #releaseTreeFork(OWLOntology, OntologyFork)}
+     */
+    protected OntologyFork getTreeFork(OWLOntology ont) {
+        final OntologyFork fork = analysedForks.get(ont);
+        return fork != null ? fork : new OntologyFork(ont.getAxioms());
+    }
+
+    protected void releaseTreeFork(OWLOntology ont, OntologyFork fork) {
+        if (analysedForks.get(ont) != fork) {
+            fork.dispose();
+        }
+    }
+
     protected Bug getBug(OWLOntology ont, Map<OWLAxiom, OWLAxiom> propertyClassAxioms, OWLEntity entity) {
         return getBug(ont, propertyClassAxioms, entity, Collections.emptySet());
     }
 
     protected Bug getBug(OWLOntology ont, Map<OWLAxiom, OWLAxiom> propertyClassAxioms, OWLEntity entity, Set<MUPS> cache) {
+        if (runDeadline != Long.MAX_VALUE && System.nanoTime() - runDeadline > 0) {
+            LOGGER.warn("Time limit of bug finding is reached, {} is not analysed, remained Bugs: {}", entity, remainedCounter.decrementAndGet());
+            // the entity is reported by an incomplete empty bug, so it is not mistaken for a satisfiable one
+            final Bug bug = Bug.emptyBug(entity);
+            bug.markIncomplete();
+            return bug;
+        }
+        final BugJournal.Entry journaledBug = journal != null ? journal.getCompletedBug(entity) : null;
+        if (journaledBug != null) {
+            final Bug bug = toBug(entity, journaledBug);
+            LOGGER.info("Bug of {} is loaded from the journal: {}, remained Bugs: {}", entity, bug, remainedCounter.decrementAndGet());
+            return bug;
+        }
+
         final Timer timer = Timer.start("Find Bug " + entity);
-        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
-        OWLOntology clonedOntology = null;
         Bug bug = null;
 
         // uncomment to add some entities to ignore list
@@ -120,61 +402,154 @@ public abstract class BugFinder {
 
         PerformanceLog log = new PerformanceLog();
 
-        try {
-            clonedOntology = manager.createOntology(getAxiomsRelatedToUnsatClass(ont, entity));
+        // findBug methods undo their changes to the module, so the workspace can be reused by other entities of the module
+        final OntologyFork moduleFork = getModuleFork(ont, entity);
+        try (OntologyFork.Workspace workspace = moduleFork.checkout()) {
+            final OWLOntology clonedOntology = workspace.getOntology();
+            analysedForks.put(clonedOntology, moduleFork);
             LOGGER.debug("Modular Ontology related to Entity {} :{}", entity, OntologyHelper.getOntologyInfo(clonedOntology));
 
             LOGGER.info("Analysing unsatisfiable {}:{} started... ActiveAnalysis: {}", entity.getClass().getSimpleName(), entity, activeAnalysisCounter.incrementAndGet());
-            bug = findBug(clonedOntology, entity, cache, log);
+            Set<MUPS> seeds = cache;
+            if (mupsStore != null) {
+                seeds = new HashSet<>(cache);
+                seeds.addAll(getStoredMUPSs(clonedOntology, entity, log));
+            }
+            final BugJournal.Entry checkpoint = journal != null ? journal.getCheckpoint(entity) : null;
+            if (checkpoint != null) {
+                // the tree is resumed from MUPSs found by the previous runs
+                seeds = new HashSet<>(seeds);
+                seeds.addAll(toBug(entity, checkpoint).getMupsSet());
+            }
+            try {
+                bug = findBug(clonedOntology, entity, seeds, log);
+            } finally {
+                analysedForks.remove(clonedOntology);
+            }
             if (bug != null) {
+                if (journal != null) {
+                    journal.recordBug(bug, timer.getElapsedTimeMillis());
+                }
+                if (mupsStore != null) {
+                    // publish before replacing axioms, so the store only includes axioms of the modules
+                    mupsStore.publish(bug.getMupsSet());
+                }
                 // replace fake class definition axioms with the real property domain/range axioms
                 bug.replaceAxioms(propertyClassAxioms);
 
                 LOGGER.info("New Bug detected: {}", bug);
             }
-        } catch (OWLOntologyCreationException e) {
-            LOGGER.catching(e);
-        }
-        if (clonedOntology != null) {
-            manager.removeOntology(clonedOntology);
         }
         timer.stop();
         LOGGER.info("{}, {}, remained Bugs: {}, ActiveAnalysis: {}", timer, log.toString(), remainedCounter.decrementAndGet(), activeAnalysisCounter.decrementAndGet());
         return bug;
     }
 
-    private Set<OWLAxiom> getAxiomsRelatedToUnsatClass(OWLOntology ont, OWLEntity cla) {
-        if (Configs.getInstance().isUSE_MODULAR_ONTOLOGY_IN_BUG_FINDER()) {
-            return getModuleAxioms(ont, cla);
-        } else {
-            return ont.getAxioms();
+    private Bug toBug(OWLEntity entity, BugJournal.Entry entry) {
+        final Set<MUPS> mupsSet = entry.mupsSet.stream().map(axioms -> toMUPS(entity, axioms))
+                .collect(Collectors.toSet());
+        final Bug bug = new Bug(entity, mupsSet, new HashSet<>(entry.diagnoses));
+        if (!entry.complete) {
+            bug.markIncomplete();
         }
+        return bug;
+    }
+
+    /**
+     * diagnoses of the entity found by the previous runs, trees add them to their satisfiable paths when they are resumed
+     *
+     * @return diagnoses as bit sets of the dictionary, diagnoses with axioms out of the dictionary are ignored
+     */
+    protected Set<AxiomBitSet> getJournaledDiagnoses(OWLEntity entity, AxiomDictionary dictionary) {
+        final BugJournal.Entry checkpoint = journal != null ? journal.getCheckpoint(entity) : null;
+        if (checkpoint == null)
+            return Collections.emptySet();
+        return checkpoint.diagnoses.stream().filter(diagnosis -> diagnosis.stream().allMatch(dictionary::contains))
+                .map(dictionary::toBitSet).collect(Collectors.toSet());
+    }
+
+    /**
+     * write a checkpoint of the tree of the entity to the journal, checkpoints of an entity are rate limited by the journal
+     *
+     * @param diagnoses supplier of the diagnoses found so far, it is called only if the checkpoint is written
+     */
+    protected void checkpoint(OWLEntity entity, Set<MUPS> allMUPSs, Supplier<Set<Set<OWLAxiom>>> diagnoses) {
+        if (journal != null) {
+            journal.checkpoint(entity, allMUPSs, diagnoses);
+        }
+    }
+
+    /**
+     * find MUPSs of the entity among MUPSs already found for other entities.
+     * Each candidate is checked within a small ontology of its own axioms and is shrunk to a MUPS of the entity.
+     *
+     * @param module module of the entity
+     * @return MUPSs of the entity which are found using the MUPS store
+     */
+    private Set<MUPS> getStoredMUPSs(OWLOntology module, OWLEntity entity, PerformanceLog log) {
+        final Set<MUPS> mupsSet = new HashSet<>();
+        final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        for (Set<OWLAxiom> candidate : mupsStore.getCandidates(module, entity)) {
+            if (mupsSet.stream().anyMatch(candidate::containsAll))
+                continue; // it includes an already found MUPS, so it doesn't give a new one
+            try {
+                final OWLOntology candidateOntology = manager.createOntology(candidate);
+                // it returns null if the entity is satisfiable w.r.t. the candidate axioms
+                final MUPS mups = findRandomMUPS(candidateOntology, entity, mupsSet, log);
+                if (mups != null)
+                    mupsSet.add(mups);
+                manager.removeOntology(candidateOntology);
+            } catch (OWLOntologyCreationException e) {
+                LOGGER.catching(e);
+            }
+        }
+        LOGGER.debug("{} MUPSs of Entity {} found in MUPS store", mupsSet.size(), entity);
+        return mupsSet;
+    }
+
+    /**
+     * @return axioms of the module of the entity, or all of the axioms if modules are not used
+     */
+    protected Set<OWLAxiom> getAxiomsRelatedToUnsatClass(OWLOntology ont, OWLEntity cla) {
+        return getCluster(ont, cla).axioms;
     }
 
     private Set<OWLAxiom> getModuleAxioms(OWLOntology ontology, OWLEntity entity) {
+        final Map<OWLEntity, List<OWLAxiom>> index = signatureIndexes.computeIfAbsent(ontology, this::buildSignatureIndex);
         Set<OWLAxiom> axioms = new HashSet<>();
-        int oldSize = 0;
         if (entity instanceof OWLClass) {
             axioms.addAll(ontology.getAxioms((OWLClass) entity, Imports.INCLUDED));
         } else if (entity instanceof OWLObjectPropertyExpression) {
             axioms.addAll(ontology.getAxioms((OWLObjectPropertyExpression) entity, Imports.INCLUDED));
         }
-        Set<OWLEntity> topBottom = getTopBottomEntities();
-        while (axioms.size() != oldSize) {
-            oldSize = axioms.size();
-            Set<OWLEntity> entities = new HashSet<>();
-            axioms.stream().map(OWLAxiom::getSignature).forEach(entities::addAll);
-            ontology.getAxioms().stream().filter(axiom -> {
-                final Set<OWLEntity> signature = axiom.getSignature();
-                signature.removeAll(topBottom);
-                signature.retainAll(entities);
-                return !signature.isEmpty();
-            }).forEach(axioms::add);
+        // breadth first over entities, axioms of each entity are visited only once
+        final Set<OWLEntity> visitedEntities = new HashSet<>();
+        final Deque<OWLAxiom> frontier = new ArrayDeque<>(axioms);
+        while (!frontier.isEmpty()) {
+            for (OWLEntity signatureEntity : frontier.poll().getSignature()) {
+                if (visitedEntities.add(signatureEntity)) {
+                    index.getOrDefault(signatureEntity, Collections.emptyList()).stream().filter(axioms::add).forEach(frontier::add);
+                }
+            }
         }
         LOGGER.debug("Modular Ontology has {} axioms which are {}% of whole ontology", axioms.size(), axioms.size() * 100 / ontology.getAxiomCount());
         return axioms;
     }
 
+    /**
+     * @return map of each entity, except top and bottom entities, to the axioms of the ontology which include it
+     */
+    private Map<OWLEntity, List<OWLAxiom>> buildSignatureIndex(OWLOntology ontology) {
+        final Timer timer = Timer.start("Building signature index");
+        final Set<OWLEntity> topBottom = getTopBottomEntities();
+        final Map<OWLEntity, List<OWLAxiom>> index = new HashMap<>();
+        ontology.getAxioms().forEach(axiom -> axiom.getSignature().stream().filter(e -> !topBottom.contains(e))
+                .forEach(e -> index.computeIfAbsent(e, key -> new ArrayList<>()).add(axiom)));
+        timer.stop();
+        LOGGER.debug("{}, indexed entities: {}", timer, index.size());
+        return index;
+    }
+
     private Set<OWLEntity> getTopBottomEntities() {
         Set<OWLEntity> topBottom = new HashSet<>();
         final OWLDataFactory dataFactory = OWLManager.getOWLDataFactory();
@@ -215,19 +590,58 @@ public abstract class BugFinder {
         if (axioms == null || axioms.isEmpty())
             return null;
         else {
+            if (satisfiabilityCache != null) {
+                // any superset of the MUPS is unsatisfiable
+                satisfiabilityCache.put(entity, new HashSet<>(axioms), false);
+            }
             return MUPS.build(entity, axioms, profile, ontology);
         }
     }
 
+    /**
+     * @param axioms axioms which are known to be a MUPS of the entity
+     * @return MUPS of the axioms without checking them
+     */
+    protected MUPS toMUPS(OWLEntity entity, Set<OWLAxiom> axioms) {
+        return MUPS.build(entity, axioms, profile, ontology);
+    }
+
+    /**
+     * @return a new budget for the hitting set tree of an entity, based on the configured limits and the run deadline
+     */
+    protected SearchBudget newSearchBudget() {
+        final Configs configs = Configs.getInstance();
+        return new SearchBudget(configs.getMAX_TREE_NODES(), configs.getMAX_DIAGNOSIS_CARDINALITY(), configs.getENTITY_TIME_LIMIT(), runDeadline);
+    }
+
     protected MUPS getMUPSFromCache(OWLOntology ont, Set<MUPS> allMUPSs) {
-        synchronized (allMUPSs) {
-            final Optional<MUPS> cachedMUPS =
-                    allMUPSs.stream().filter(mups -> mups.stream().allMatch(ont::containsAxiom)).findAny();
-            if (cachedMUPS.isPresent()) {
-                LOGGER.trace("Using cached Ontology in getMUPS method");
-                return cachedMUPS.get();
-            }
+        return getMUPSFromCache(ont::containsAxiom, allMUPSs);
+    }
+
+    /**
+     * @param containsAxiom membership test of the axioms of the ontology, e.g. of an ontology fork
+     * @param allMUPSs      already found MUPSs, it should be a concurrent set if other threads add MUPSs to it
+     * @return an already found MUPS whose axioms are all in the ontology, or null if there is no such MUPS
+     */
+    protected MUPS getMUPSFromCache(Predicate<OWLAxiom> containsAxiom, Set<MUPS> allMUPSs) {
+        final Optional<MUPS> cachedMUPS =
+                allMUPSs.stream().filter(mups -> mups.stream().allMatch(containsAxiom)).findAny();
+        if (cachedMUPS.isPresent()) {
+            LOGGER.trace("Using cached Ontology in getMUPS method");
+            return cachedMUPS.get();
         }
         return null;
     }
+
+    private static class ModuleCluster {
+        private final Set<OWLAxiom> axioms;
+        private final OntologyFork fork;
+        /* number of pending entities of the run in the cluster, it is guarded by the bug finder */
+        private int pendingCount;
+
+        private ModuleCluster(Set<OWLAxiom> axioms) {
+            this.axioms = Collections.unmodifiableSet(axioms);
+            this.fork = new OntologyFork(axioms);
+        }
+    }
 }
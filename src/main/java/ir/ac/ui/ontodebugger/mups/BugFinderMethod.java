@@ -9,4 +9,7 @@ public enum BugFinderMethod {
     PARALLEL_DF_HITSET,
     HITSET,
     PARALLEL_HITSET, HITSET_PLUS, PARALLEL_HITSET_PLUS,
+    COST_HITSET,
+    DIRECT_DIAGNOSIS,
+    COHERENCE,
 }
@@ -0,0 +1,264 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import ir.ac.ui.ontodebugger.Bug;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Append-only journal of a bug finding run on local disk, so a restarted run can skip entities whose bugs are
+ * already found and resume the hitting set trees of the others from their MUPSs and diagnoses.
+ * <p>
+ * The journal is a text file, each record is some tab separated lines ending with an END line and it is synced to
+ * disk when it is written, so a record which is cut by a crash is ignored when the journal is loaded.
+ * Entities and axioms are stored by their functional syntax, records with axioms which are not in the ontology are
+ * ignored. The first line of the journal is a fingerprint of the ontology, the journal of another ontology, e.g. an
+ * edited one with the same file name, is discarded when it is opened.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class BugJournal {
+    private static final Logger LOGGER = LogManager.getLogger(BugJournal.class);
+    private static final String ONTOLOGY = "ONTOLOGY";
+    private static final String BUG = "BUG";
+    private static final String CHECKPOINT = "CHECKPOINT";
+    private static final String MUPS_LINE = "MUPS";
+    private static final String DIAGNOSIS = "DIAGNOSIS";
+    private static final String END = "END";
+
+    private final File file;
+    private final long checkpointInterval;
+    private final Map<OWLEntity, Entry> completed = new ConcurrentHashMap<>();
+    private final Map<OWLEntity, Entry> checkpoints = new ConcurrentHashMap<>();
+    private final Map<OWLEntity, Long> lastCheckpoints = new ConcurrentHashMap<>();
+    private FileOutputStream output;
+
+    /**
+     * @param file               journal file, it is created if it doesn't exist
+     * @param checkpointInterval minimum seconds between two checkpoints of the tree of an entity
+     */
+    public BugJournal(File file, int checkpointInterval) {
+        this.file = file;
+        this.checkpointInterval = TimeUnit.SECONDS.toNanos(checkpointInterval);
+    }
+
+    /**
+     * load records of the previous runs and open the journal to append new records
+     *
+     * @param ont ontology whose bugs are searched, entities and axioms of the records are resolved in it
+     */
+    public synchronized void open(OWLOntology ont) {
+        close();
+        final Map<String, OWLAxiom> axioms = new HashMap<>();
+        ont.getAxioms().forEach(axiom -> axioms.put(escape(axiom.toString()), axiom));
+        final String header = ONTOLOGY + "\t" + axioms.size() + "\t" + fingerprint(axioms.keySet());
+        final boolean resume = file.exists() && header.equals(readHeader());
+        if (resume) {
+            load(ont, axioms);
+        } else if (file.exists()) {
+            LOGGER.warn("Journal {} belongs to another ontology, it is discarded", file);
+        }
+        try {
+            output = new FileOutputStream(file, resume);
+            if (!resume) {
+                output.write((header + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            LOGGER.catching(e);
+        }
+    }
+
+    /**
+     * close the journal, loaded records are dropped too, so they are not used for other ontologies, e.g. an edited one
+     */
+    public synchronized void close() {
+        completed.clear();
+        checkpoints.clear();
+        lastCheckpoints.clear();
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                LOGGER.catching(e);
+            }
+            output = null;
+        }
+    }
+
+    /**
+     * @return complete bug of the entity found by a previous run, or null
+     */
+    public Entry getCompletedBug(OWLEntity entity) {
+        return completed.get(entity);
+    }
+
+    /**
+     * @return MUPSs and diagnoses of the entity found so far by previous runs, or null
+     */
+    public Entry getCheckpoint(OWLEntity entity) {
+        return checkpoints.get(entity);
+    }
+
+    public void recordBug(Bug bug, long time) {
+        write(BUG, bug.getEntity(), bug.isComplete() + "\t" + time, bug.getMupsSet(), bug.getDiagnoses());
+    }
+
+    /**
+     * record the state of the hitting set tree of the entity, at most once per checkpoint interval
+     *
+     * @param diagnoses supplier of diagnoses found so far, it is called only if the checkpoint is written
+     */
+    public void checkpoint(OWLEntity entity, Collection<MUPS> mupsSet, Supplier<Set<Set<OWLAxiom>>> diagnoses) {
+        final long now = System.nanoTime();
+        final Long last = lastCheckpoints.putIfAbsent(entity, now);
+        if (last == null || now - last < checkpointInterval || !lastCheckpoints.replace(entity, last, now))
+            return;
+        write(CHECKPOINT, entity, "", new ArrayList<>(mupsSet), diagnoses.get());
+    }
+
+    private synchronized void write(String type, OWLEntity entity, String data, Collection<? extends Set<OWLAxiom>> mupsSet,
+                                    Collection<Set<OWLAxiom>> diagnoses) {
+        if (output == null)
+            return;
+        final StringBuilder record = new StringBuilder();
+        record.append(type).append('\t').append(escape(entity.toString())).append('\t').append(data).append('\n');
+        mupsSet.forEach(mups -> appendAxioms(record, MUPS_LINE, mups));
+        diagnoses.forEach(diagnosis -> appendAxioms(record, DIAGNOSIS, diagnosis));
+        record.append(END).append('\n');
+        try {
+            output.write(record.toString().getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            LOGGER.catching(e);
+        }
+    }
+
+    private static void appendAxioms(StringBuilder record, String type, Set<OWLAxiom> axioms) {
+        record.append(type);
+        axioms.forEach(axiom -> record.append('\t').append(escape(axiom.toString())));
+        record.append('\n');
+    }
+
+    /**
+     * @return first line of the journal, or null if it can't be read
+     */
+    private String readHeader() {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return reader.readLine();
+        } catch (IOException e) {
+            LOGGER.catching(e);
+            return null;
+        }
+    }
+
+    /**
+     * @param axioms escaped axioms of the ontology
+     * @return hash of the sorted axioms, it doesn't depend on the order of the axioms in the ontology
+     */
+    private static String fingerprint(Collection<String> axioms) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            axioms.stream().sorted().forEach(axiom -> {
+                digest.update(axiom.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            });
+            return new BigInteger(1, digest.digest()).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            LOGGER.catching(e);
+            return "";
+        }
+    }
+
+    private void load(OWLOntology ont, Map<String, OWLAxiom> axioms) {
+        final Map<String, OWLEntity> entities = new HashMap<>();
+        ont.getSignature().forEach(entity -> entities.put(escape(entity.toString()), entity));
+
+        String[] header = null;
+        Entry entry = null;
+        // a record with an axiom which is not in the ontology is dropped, its bug may have other MUPSs or diagnoses
+        boolean resolved = false;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.split("\t", -1);
+                if (BUG.equals(fields[0]) || CHECKPOINT.equals(fields[0])) {
+                    header = fields;
+                    entry = new Entry(!BUG.equals(fields[0]) || fields.length < 3 || Boolean.parseBoolean(fields[2]));
+                    resolved = true;
+                } else if (entry != null && (MUPS_LINE.equals(fields[0]) || DIAGNOSIS.equals(fields[0]))) {
+                    final Set<OWLAxiom> axiomSet = resolve(fields, axioms);
+                    if (axiomSet != null) {
+                        (MUPS_LINE.equals(fields[0]) ? entry.mupsSet : entry.diagnoses).add(axiomSet);
+                    } else {
+                        resolved = false;
+                    }
+                } else if (entry != null && END.equals(fields[0])) {
+                    final OWLEntity entity = entities.get(header[1]);
+                    if (entity != null && resolved) {
+                        commit(header[0], entity, entry);
+                    }
+                    entry = null;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.catching(e);
+        }
+        LOGGER.info("Journal {} is loaded, completed bugs: {}, checkpoints: {}", file, completed.size(), checkpoints.size());
+    }
+
+    private void commit(String type, OWLEntity entity, Entry entry) {
+        if (BUG.equals(type) && entry.complete) {
+            completed.put(entity, entry);
+        } else {
+            // MUPSs and diagnoses of checkpoints and incomplete bugs are all correct, so they are merged
+            checkpoints.merge(entity, entry, (a, b) -> {
+                a.mupsSet.addAll(b.mupsSet);
+                a.diagnoses.addAll(b.diagnoses);
+                return a;
+            });
+        }
+    }
+
+    private static Set<OWLAxiom> resolve(String[] fields, Map<String, OWLAxiom> axioms) {
+        final Set<OWLAxiom> axiomSet = new HashSet<>();
+        for (int i = 1; i < fields.length; i++) {
+            final OWLAxiom axiom = axioms.get(fields[i]);
+            if (axiom == null)
+                return null;
+            axiomSet.add(axiom);
+        }
+        return axiomSet;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    /**
+     * MUPSs and diagnoses of an entity loaded from the journal
+     */
+    public static class Entry {
+        public final Set<Set<OWLAxiom>> mupsSet = new HashSet<>();
+        public final Set<Set<OWLAxiom>> diagnoses = new HashSet<>();
+        public final boolean complete;
+
+        private Entry(boolean complete) {
+            this.complete = complete;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import ir.ac.ui.ontodebugger.Bug;
+import ir.ac.ui.ontodebugger.Configs;
+import ir.ac.ui.ontodebugger.KnowledgeBaseProfile;
+import ir.ac.ui.ontodebugger.util.AxiomBitSet;
+import ir.ac.ui.ontodebugger.util.AxiomDictionary;
+import ir.ac.ui.ontodebugger.util.MultiThreadProcess;
+import ir.ac.ui.ontodebugger.util.OntologyFork;
+import ir.ac.ui.ontodebugger.util.SetTrie;
+import ir.ac.ui.ontodebugger.util.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.util.*;
+
+/**
+ * Builds one hitting set tree whose goal is coherence, i.e. satisfiability of all of the unsatisfiable entities,
+ * instead of one tree per entity. Label of each node is a MUPS of any entity which is still unsatisfiable
+ * after removing the path, so diagnoses of the tree are repairs of the whole ontology and overlapping per-entity
+ * trees are not explored.
+ * <p>
+ * Entities whose modules don't share any axiom have independent repairs, a tree is built for each module cluster,
+ * so repairs of independent clusters are not multiplied. Bug of each entity includes MUPSs
+ * found for it and repairs of its cluster; it is marked incomplete since the tree doesn't search all MUPSs of each entity.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class CoherenceBugFinder extends BugFinder {
+    private static final Logger LOGGER = LogManager.getLogger(CoherenceBugFinder.class);
+
+    public CoherenceBugFinder(KnowledgeBaseProfile profile, OWLOntology ontology) {
+        super(profile, ontology);
+    }
+
+    @Override
+    protected List<Bug> findBugs(OWLOntology ont, Set<OWLEntity> unsatEntities, Map<OWLAxiom, OWLAxiom> propertyClassAxioms) {
+        final List<EntityGroup> groups = getEntityGroups(ont, unsatEntities);
+        LOGGER.info("{} unsatisfiable entities are grouped into {} coherence trees", unsatEntities.size(), groups.size());
+        final List<Bug> bugs = Collections.synchronizedList(new ArrayList<>());
+        if (Configs.getInstance().isSINGLE_THREAD_REASONING()) {
+            groups.forEach(group -> bugs.addAll(findFinishedGroupBugs(group)));
+        } else {
+            MultiThreadProcess.runAndWait(() -> groups.parallelStream().forEach(group -> bugs.addAll(findFinishedGroupBugs(group))));
+        }
+        bugs.forEach(bug -> bug.replaceAxioms(propertyClassAxioms));
+        return new ArrayList<>(bugs);
+    }
+
+    /**
+     * find the bug of a single entity, e.g. by updateBugs, by a coherence tree whose only target is the entity
+     */
+    @Override
+    protected Bug findBug(OWLOntology ont, OWLEntity entity, Set<MUPS> cache, PerformanceLog log) {
+        final OntologyFork rootFork = getTreeFork(ont);
+        try {
+            final EntityGroup group = new EntityGroup(rootFork, ont.getAxioms());
+            group.entities.add(entity);
+            final Bug bug = findGroupBugs(group, log).get(0);
+            // the empty path is a repair, i.e. the entity is satisfiable in the ontology
+            return bug.getMupsSet().isEmpty() ? null : bug;
+        } finally {
+            releaseTreeFork(ont, rootFork);
+        }
+    }
+
+    /**
+     * group entities by their module clusters, modules of entities of different clusters don't share any axiom
+     */
+    private List<EntityGroup> getEntityGroups(OWLOntology ont, Set<OWLEntity> unsatEntities) {
+        final Map<OntologyFork, EntityGroup> groups = new LinkedHashMap<>();
+        for (OWLEntity entity : unsatEntities) {
+            final OntologyFork moduleFork = getModuleFork(ont, entity);
+            groups.computeIfAbsent(moduleFork, fork -> new EntityGroup(fork, getAxiomsRelatedToUnsatClass(ont, entity)))
+                    .entities.add(entity);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * find bugs of the group and finish its entities, so workspaces of its module cluster are disposed
+     */
+    private List<Bug> findFinishedGroupBugs(EntityGroup group) {
+        try {
+            return findGroupBugs(group, new PerformanceLog());
+        } finally {
+            group.entities.forEach(this::finishEntity);
+        }
+    }
+
+    private List<Bug> findGroupBugs(EntityGroup group, PerformanceLog log) {
+        final Timer timer = Timer.start("Coherence tree of " + group.entities.size() + " entities");
+        final List<OWLEntity> targets = new ArrayList<>(group.entities);
+        final AxiomDictionary dictionary = new AxiomDictionary(group.axioms);
+        // the tree forks the module cluster, so it reuses warm workspaces of the cluster
+        final OntologyFork rootFork = group.moduleFork;
+        final Set<MUPS> allMUPSs = new HashSet<>();
+        final Map<OWLEntity, Set<MUPS>> entityMUPSs = new HashMap<>();
+        targets.forEach(entity -> entityMUPSs.put(entity, new HashSet<>()));
+        final Set<AxiomBitSet> repairs = new HashSet<>();
+        final SetTrie<Integer> repairIndex = new SetTrie<>(Comparator.naturalOrder());
+        final Set<AxiomBitSet> examinedPaths = new HashSet<>();
+        final SearchBudget budget = newSearchBudget();
+        final Queue<AxiomBitSet> queue = new ArrayDeque<>();
+        queue.add(AxiomBitSet.empty());
+        int nodeCounter = 0;
+
+        while (!queue.isEmpty()) {
+            final AxiomBitSet path = queue.poll();
+            // the tree is expanded breadth first, so a superset of a found repair is not minimal
+            if (repairIndex.containsSubsetOf(path.toList()))
+                continue;
+            if (!path.isEmpty() && !budget.allowNode(path.cardinality()))
+                continue;
+
+            nodeCounter++;
+            final OntologyFork fork = rootFork.remove(dictionary.toAxioms(path));
+            // a MUPS of any entity which is not hit by the path keeps that entity unsatisfiable
+            MUPS label = getMUPSFromCache(fork::containsAxiom, allMUPSs);
+            if (label == null) {
+                label = findUnsatisfiableEntityMUPS(fork, targets, allMUPSs, entityMUPSs, log);
+            }
+            if (label == null) {
+                LOGGER.debug("New Repair of size {} found for {} entities", path.cardinality(), targets.size());
+                repairs.add(path);
+                repairIndex.add(path.toList());
+                continue;
+            }
+            label.stream().mapToInt(dictionary::getId).mapToObj(path::with).filter(examinedPaths::add).forEach(queue::add);
+        }
+        timer.stop();
+        LOGGER.info("{}, Node: {}, MUPSs: {}, Repairs: {}, {}", timer, nodeCounter, allMUPSs.size(), repairs.size(), log);
+        if (budget.isExhausted()) {
+            LOGGER.warn("Search budget of the coherence tree of {} entities is exhausted, its repairs are not all of them", targets.size());
+        }
+
+        final Set<Set<OWLAxiom>> repairSets = dictionary.toAxiomSets(repairs);
+        final List<Bug> bugs = new ArrayList<>();
+        targets.forEach(entity -> {
+            final Bug bug = new Bug(entity, entityMUPSs.get(entity), repairSets);
+            bug.markIncomplete();
+            LOGGER.info("New Bug detected: {}", bug);
+            bugs.add(bug);
+        });
+        return bugs;
+    }
+
+    /**
+     * @return a new MUPS of the first target which is unsatisfiable in the fork, or null if all of them are satisfiable
+     */
+    private MUPS findUnsatisfiableEntityMUPS(OntologyFork fork, List<OWLEntity> targets, Set<MUPS> allMUPSs,
+                                             Map<OWLEntity, Set<MUPS>> entityMUPSs, PerformanceLog log) {
+        try (OntologyFork.Workspace workspace = fork.checkout()) {
+            final SatisfiabilityOracle oracle = new SatisfiabilityOracle(workspace.getReasoner(), log, satisfiabilityCache);
+            for (OWLEntity entity : targets) {
+                if (oracle.isSatisfiable(entity))
+                    continue;
+                final Timer t = Timer.start("findRandomMUPS");
+                final MUPS mups = findRandomMUPS(workspace.getOntology(), entity, allMUPSs, log);
+                t.stop();
+                log.getFindRandomMUPSTime().addAndGet(t.getElapsedTimeMillis());
+                if (mups != null) {
+                    allMUPSs.add(mups);
+                    entityMUPSs.get(entity).add(mups);
+                    return mups;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class EntityGroup {
+        private final OntologyFork moduleFork;
+        private final Set<OWLAxiom> axioms;
+        private final Set<OWLEntity> entities = new HashSet<>();
+
+        private EntityGroup(OntologyFork moduleFork, Set<OWLAxiom> axioms) {
+            this.moduleFork = moduleFork;
+            this.axioms = axioms;
+        }
+    }
+}
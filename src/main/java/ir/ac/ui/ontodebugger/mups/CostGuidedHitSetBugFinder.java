@@ -0,0 +1,194 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import ir.ac.ui.ontodebugger.Bug;
+import ir.ac.ui.ontodebugger.BugList;
+import ir.ac.ui.ontodebugger.KnowledgeBaseProfile;
+import ir.ac.ui.ontodebugger.errordetectors.AxiomRanker;
+import ir.ac.ui.ontodebugger.util.AxiomBitSet;
+import ir.ac.ui.ontodebugger.util.AxiomDictionary;
+import ir.ac.ui.ontodebugger.util.OntologyFork;
+import ir.ac.ui.ontodebugger.util.SetTrie;
+import ir.ac.ui.ontodebugger.util.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Uniform cost hitting set tree: nodes are expanded best-first by the accumulated cost of the axioms in their paths,
+ * costs are given by an {@link AxiomRanker}. Edge costs are positive, so a superset of a path is never cheaper than
+ * the path and diagnoses are found in ascending order of cost. The search stops when the k cheapest diagnoses are found.
+ * <p>
+ * The ranker is initialized before the bugs are known (with an empty bug list), so rankers which don't depend on
+ * the MUPSs (e.g. profile support and information content) are the meaningful ones; without a ranker all axioms
+ * have the same cost and the tree is expanded by cardinality of paths.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class CostGuidedHitSetBugFinder extends BugFinder {
+    private static final Logger LOGGER = LogManager.getLogger(CostGuidedHitSetBugFinder.class);
+    private final AxiomRanker axiomRanker;
+    private final int maxDiagnoses;
+    private final Map<OWLAxiom, Double> edgeCosts = new ConcurrentHashMap<>();
+
+    /**
+     * @param axiomRanker  ranker of axioms, null means all of the axioms have the same cost
+     * @param maxDiagnoses number of the cheapest diagnoses to be found for each entity, 0 means all of them
+     */
+    public CostGuidedHitSetBugFinder(KnowledgeBaseProfile profile, OWLOntology ontology, AxiomRanker axiomRanker, int maxDiagnoses) {
+        super(profile, ontology);
+        this.axiomRanker = axiomRanker;
+        this.maxDiagnoses = maxDiagnoses;
+    }
+
+    @Override
+    protected void startRun(OWLOntology ont, Set<OWLEntity> unsatEntities) {
+        super.startRun(ont, unsatEntities);
+        if (axiomRanker != null) {
+            axiomRanker.init(ont, new BugList(Collections.emptyList()));
+        }
+    }
+
+    @Override
+    protected void finishRun() {
+        if (axiomRanker != null) {
+            axiomRanker.fini();
+        }
+        edgeCosts.clear();
+        super.finishRun();
+    }
+
+    @Override
+    protected Bug findBug(OWLOntology ont, OWLEntity entity, Set<MUPS> cache, PerformanceLog log) {
+        LOGGER.debug("Analysing unsatisfiable Entity:{} started...", entity);
+        final Set<MUPS> allMUPSs = new HashSet<>(cache);
+        final AxiomDictionary dictionary = new AxiomDictionary(ont.getAxioms());
+        final OntologyFork rootFork = getTreeFork(ont);
+        // diagnoses in ascending order of cost
+        final List<AxiomBitSet> diagnoses = new ArrayList<>();
+        final SetTrie<Integer> diagnosisIndex = new SetTrie<>(Comparator.naturalOrder());
+        final Set<AxiomBitSet> examinedPaths = new HashSet<>();
+        final SearchBudget budget = newSearchBudget();
+        final PriorityQueue<CostedPath> queue = new PriorityQueue<>();
+        queue.add(new CostedPath(AxiomBitSet.empty(), 0));
+        int nodeCounter = 0;
+        int earlyTerminationCounter = 0;
+        boolean stopped = false;
+
+        while (!queue.isEmpty()) {
+            if (maxDiagnoses > 0 && diagnoses.size() >= maxDiagnoses) {
+                LOGGER.debug("{} cheapest diagnoses of {} are found", diagnoses.size(), entity);
+                stopped = true;
+                break;
+            }
+
+            final CostedPath node = queue.poll();
+            // cheaper subsets are popped first, so a superset of a found diagnosis is not minimal
+            if (diagnosisIndex.containsSubsetOf(node.path.toList())) {
+                earlyTerminationCounter++;
+                continue;
+            }
+            if (!node.path.isEmpty() && !budget.allowNode(node.path.cardinality())) {
+                continue;
+            }
+
+            nodeCounter++;
+            final OntologyFork fork = rootFork.remove(dictionary.toAxioms(node.path));
+            MUPS mups = getMUPSFromCache(fork::containsAxiom, allMUPSs);
+            if (mups == null) {
+                try (OntologyFork.Workspace workspace = fork.checkout()) {
+                    final SatisfiabilityOracle oracle = new SatisfiabilityOracle(workspace.getReasoner(), log, satisfiabilityCache);
+                    if (!oracle.isSatisfiable(entity)) {
+                        Timer t = Timer.start("findRandomMUPS");
+                        mups = findRandomMUPS(workspace.getOntology(), entity, allMUPSs, log);
+                        t.stop();
+                        log.getFindRandomMUPSTime().addAndGet(t.getElapsedTimeMillis());
+                    }
+                }
+            }
+
+            if (mups == null) {
+                if (node.path.isEmpty()) {
+                    // the entity is satisfiable in the module
+                    releaseTreeFork(ont, rootFork);
+                    return null;
+                }
+                LOGGER.debug("New Diagnosis of size {} and cost {} found for Entity: {}", node.path.cardinality(), node.cost, entity);
+                diagnoses.add(node.path);
+                diagnosisIndex.add(node.path.toList());
+                continue;
+            }
+
+            allMUPSs.add(mups);
+            for (OWLAxiom axiom : mups) {
+                if (!dictionary.contains(axiom))
+                    continue;
+                final AxiomBitSet path = node.path.with(dictionary.getId(axiom));
+                if (examinedPaths.add(path)) {
+                    queue.add(new CostedPath(path, node.cost + getEdgeCost(axiom)));
+                }
+            }
+            // journaled diagnoses are not reused by the resumed tree, they may not be the cheapest ones
+            checkpoint(entity, allMUPSs, () -> dictionary.toAxiomSets(diagnoses));
+        }
+        releaseTreeFork(ont, rootFork);
+
+        LOGGER.info("Cost guided Hitset Tree for Entity: {} has Node: {}, Diagnoses: {}, EarlyTermination: {}",
+                entity, nodeCounter, diagnoses.size(), earlyTerminationCounter);
+        final Set<Set<OWLAxiom>> diagnosisSets = diagnoses.stream().map(dictionary::toAxioms)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        final Bug bug = new Bug(entity, allMUPSs, diagnosisSets);
+        if (stopped && !queue.isEmpty() || budget.isExhausted()) {
+            // more expensive diagnoses and their MUPSs are not searched
+            bug.markIncomplete();
+        }
+        return bug;
+    }
+
+    /**
+     * cost of an edge of the tree, costs of the ranker are mapped to positive values preserving their order
+     */
+    private double getEdgeCost(OWLAxiom axiom) {
+        if (axiomRanker == null)
+            return 1;
+        Double cost = edgeCosts.get(axiom);
+        if (cost == null) {
+            final double rank;
+            // rankers are not thread safe and entities are analysed in parallel
+            synchronized (axiomRanker) {
+                rank = axiomRanker.getAxiomCost(axiom);
+            }
+            cost = toEdgeCost(rank);
+            edgeCosts.putIfAbsent(axiom, cost);
+        }
+        return cost;
+    }
+
+    static double toEdgeCost(double rank) {
+        if (Double.isNaN(rank) || Double.isInfinite(rank))
+            return 1;
+        return rank >= 0 ? 1 + rank : 1 / (1 - rank);
+    }
+
+    private static class CostedPath implements Comparable<CostedPath> {
+        private final AxiomBitSet path;
+        private final double cost;
+
+        private CostedPath(AxiomBitSet path, double cost) {
+            this.path = path;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(CostedPath o) {
+            final int result = Double.compare(cost, o.cost);
+            return result != 0 ? result : Integer.compare(path.cardinality(), o.path.cardinality());
+        }
+    }
+}
@@ -3,12 +3,13 @@ package ir.ac.ui.ontodebugger.mups;
 import ir.ac.ui.ontodebugger.Bug;
 import ir.ac.ui.ontodebugger.KnowledgeBaseProfile;
 import ir.ac.ui.ontodebugger.reasoner.ReasonerFactory;
+import ir.ac.ui.ontodebugger.util.AxiomBitSet;
+import ir.ac.ui.ontodebugger.util.AxiomDictionary;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import javax.annotation.Nonnull;
 import java.util.HashSet;
@@ -17,8 +18,6 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import static ir.ac.ui.ontodebugger.util.OntologyHelper.isSatisfiable;
-
 /**
  * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
  * Created on 10/9/15
@@ -27,7 +26,6 @@ public class DFHitSetBugFinder extends BugFinder {
     private static final Logger LOGGER = LogManager.getLogger(DFHitSetBugFinder.class);
 
     private final Map<MUPS, Integer> mupsNo = new ConcurrentHashMap<>();
-    private final Map<OWLAxiom, Integer> axiomNo = new ConcurrentHashMap<>();
 
     public DFHitSetBugFinder(KnowledgeBaseProfile profile, OWLOntology ontology) {
         super(profile, ontology);
@@ -38,24 +36,40 @@ public class DFHitSetBugFinder extends BugFinder {
     protected Bug findBug(OWLOntology ont, OWLEntity entity, Set<MUPS> cache, PerformanceLog log) {
         LOGGER.debug("Analysing unsatisfiable Class:{} started...", entity);
         Set<MUPS> allMUPSs = new HashSet<>(cache);
-        final Set<Set<OWLAxiom>> satisfiablePaths = new HashSet<>();
+        // paths and diagnoses are bit sets of axiom ids, they are converted to axioms when the bug is built
+        final AxiomDictionary dictionary = new AxiomDictionary(ont.getAxioms());
+        final Set<AxiomBitSet> satisfiablePaths = new HashSet<>(getJournaledDiagnoses(entity, dictionary));
 
         AtomicInteger earlyTerminationCounter = new AtomicInteger(0);
         AtomicInteger nodeCounter = new AtomicInteger(0);
+        final SearchBudget budget = newSearchBudget();
 
-        final OWLReasoner reasoner = ReasonerFactory.getReasoner(ont);
+        final SatisfiabilityOracle oracle = new SatisfiabilityOracle(ReasonerFactory.getReasoner(ont), log, satisfiabilityCache);
 
         final MUPS newMUPS;
-        newMUPS = getMUPS(ont, entity, allMUPSs, log);
-        if (newMUPS != null) {
-            allMUPSs.add(newMUPS);
-            hitSetFindMups(ont, entity, allMUPSs, newMUPS, new HashSet<>(), satisfiablePaths, reasoner, nodeCounter, earlyTerminationCounter, log);
+        try {
+            newMUPS = getMUPS(ont, entity, allMUPSs, log);
+            if (newMUPS != null) {
+                allMUPSs.add(newMUPS);
+                hitSetFindMups(ont, entity, allMUPSs, newMUPS, AxiomBitSet.empty(), satisfiablePaths, dictionary, oracle, budget, nodeCounter, earlyTerminationCounter, log);
+            }
+        } finally {
+            // the reasoner of the oracle is not pooled, so it is disposed even if the tree fails
+            oracle.dispose();
+        }
 
+        if (newMUPS != null) {
             LOGGER.info("Hitset Tree for {} has Node: {}, SatisfiablePath: {}, EarlyTermination: {} ",
                     entity, nodeCounter.get(), satisfiablePaths.size(), earlyTerminationCounter.get());
-            return new Bug(entity, allMUPSs, satisfiablePaths);
-        } else
+            final Bug bug = new Bug(entity, allMUPSs, dictionary.toAxiomSets(satisfiablePaths));
+            if (budget.isExhausted()) {
+                LOGGER.warn("Search budget of {} is exhausted, its bug is incomplete", entity);
+                bug.markIncomplete();
+            }
+            return bug;
+        } else {
             return null;
+        }
     }
 
 
@@ -63,46 +77,54 @@ public class DFHitSetBugFinder extends BugFinder {
                                   @Nonnull OWLEntity entity,
                                   @Nonnull Set<MUPS> allMUPSs,
                                   @Nonnull MUPS currentMUPS,
-                                  @Nonnull Set<OWLAxiom> currentPath,
-                                  @Nonnull Set<Set<OWLAxiom>> satisfiablePaths,
-                                  @Nonnull OWLReasoner reasoner,
+                                  @Nonnull AxiomBitSet currentPath,
+                                  @Nonnull Set<AxiomBitSet> satisfiablePaths,
+                                  @Nonnull AxiomDictionary dictionary,
+                                  @Nonnull SatisfiabilityOracle oracle,
+                                  @Nonnull SearchBudget budget,
                                   @Nonnull AtomicInteger nodeCounter,
                                   @Nonnull AtomicInteger earlyTerminationCounter, PerformanceLog log) {
         LOGGER.trace("HitSet Algorithm for class:{}, allMUPSs:{}, Diagnoses:{}, CurrentPath:{}",
-                entity, allMUPSs.size(), satisfiablePaths.size(), currentPath.size());
+                entity, allMUPSs.size(), satisfiablePaths.size(), currentPath.cardinality());
         LOGGER.trace("Expanding MUPS {}", mupsNo.get(currentMUPS));
         nodeCounter.incrementAndGet();
 
         for (OWLAxiom axiom : currentMUPS) {
-            currentPath.add(axiom);
-            LOGGER.trace("Removing axiom {}", axiomNo.get(axiom));
+            final int axiomId = dictionary.getId(axiom);
+            final AxiomBitSet path = currentPath.with(axiomId);
+            LOGGER.trace("Removing axiom {}", axiomId);
 
-            if (satisfiablePaths.stream().anyMatch(currentPath::containsAll)) {
+            if (satisfiablePaths.stream().anyMatch(path::containsAll)) {
                 LOGGER.debug("Early Path Termination");
                 earlyTerminationCounter.incrementAndGet();
+            } else if (!budget.allowNode(path.cardinality())) {
+                LOGGER.trace("Path is not expanded, search budget is exhausted");
             } else { // this path is not a superset for any other satisfiablePath
                 ont.getOWLOntologyManager().removeAxiom(ont, axiom);
+                try {
+                    MUPS mups = null;
+                    if (!oracle.isSatisfiable(entity)) {
+                        mups = getMUPS(ont, entity, allMUPSs, log);
+                    }
 
-                MUPS mups = null;
-                if (!isSatisfiable(reasoner, entity)) {
-                    mups = getMUPS(ont, entity, allMUPSs, log);
-                }
-
-                if (mups == null) {
-                    LOGGER.debug("New Diagnosis(Satisfiable path) found for class: {}", entity);
-                    // add to list of satisfiable paths
-                    satisfiablePaths.add(new HashSet<>(currentPath));
-                } else {
-                    if (!allMUPSs.contains(mups)) {
-                        allMUPSs.add(mups);
+                    if (mups == null) {
+                        LOGGER.debug("New Diagnosis(Satisfiable path) found for class: {}", entity);
+                        // add to list of satisfiable paths
+                        satisfiablePaths.add(path);
+                    } else {
+                        if (!allMUPSs.contains(mups)) {
+                            allMUPSs.add(mups);
+                        }
+                        // Recursively build the HitSet Tree
+                        hitSetFindMups(ont, entity, allMUPSs, mups, path, satisfiablePaths, dictionary, oracle, budget, nodeCounter, earlyTerminationCounter, log);
                     }
-                    // Recursively build the HitSet Tree
-                    hitSetFindMups(ont, entity, allMUPSs, mups, currentPath, satisfiablePaths, reasoner, nodeCounter, earlyTerminationCounter, log);
+                } finally {
+                    // the ontology is restored even if the subtree fails, callers and their workspaces reuse it
+                    ont.getOWLOntologyManager().addAxiom(ont, axiom);
                 }
-                ont.getOWLOntologyManager().addAxiom(ont, axiom);
             }
-            currentPath.remove(axiom);
         }
+        checkpoint(entity, allMUPSs, () -> dictionary.toAxiomSets(satisfiablePaths));
         LOGGER.trace("Expanding MUPS {} finished!", mupsNo.get(currentMUPS));
 
     }
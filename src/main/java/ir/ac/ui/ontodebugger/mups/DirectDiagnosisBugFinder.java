@@ -0,0 +1,184 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import ir.ac.ui.ontodebugger.Bug;
+import ir.ac.ui.ontodebugger.KnowledgeBaseProfile;
+import ir.ac.ui.ontodebugger.util.AxiomBitSet;
+import ir.ac.ui.ontodebugger.util.AxiomDictionary;
+import ir.ac.ui.ontodebugger.util.HittingSets;
+import ir.ac.ui.ontodebugger.util.OntologyFork;
+import ir.ac.ui.ontodebugger.util.SetTrie;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Finds diagnoses directly, without finding MUPSs first: each diagnosis is found by FastDiag, a divide and conquer
+ * search over the axioms of the module, and more diagnoses are enumerated by an inverse hitting set tree whose nodes
+ * are labeled by diagnoses and whose paths are axioms which are kept in the ontology.
+ * <p>
+ * MUPSs of the bug are the minimal hitting sets of the diagnoses, so they are found without reasoning when the tree
+ * is complete. If the tree is not complete, each hitting set is shrunk to a MUPS by the MUPS finder.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class DirectDiagnosisBugFinder extends BugFinder {
+    private static final Logger LOGGER = LogManager.getLogger(DirectDiagnosisBugFinder.class);
+
+    public DirectDiagnosisBugFinder(KnowledgeBaseProfile profile, OWLOntology ontology) {
+        super(profile, ontology);
+    }
+
+    @Override
+    protected Bug findBug(OWLOntology ont, OWLEntity entity, Set<MUPS> cache, PerformanceLog log) {
+        LOGGER.debug("Analysing unsatisfiable Entity:{} started...", entity);
+        final AxiomDictionary dictionary = new AxiomDictionary(ont.getAxioms());
+        final OntologyFork rootFork = getTreeFork(ont);
+        final SearchBudget budget = newSearchBudget();
+        final DiagnosisSearch search = new DiagnosisSearch(entity, dictionary, rootFork, log);
+
+        if (search.isSatisfiable(AxiomBitSet.empty())) {
+            releaseTreeFork(ont, rootFork);
+            return null;
+        }
+
+        final Set<AxiomBitSet> diagnoses = new LinkedHashSet<>(getJournaledDiagnoses(entity, dictionary));
+        // paths whose kept axioms alone make the entity unsatisfiable, they and their supersets have no diagnosis
+        final SetTrie<Integer> closedPaths = new SetTrie<>(Comparator.naturalOrder());
+        final Set<AxiomBitSet> examinedPaths = new HashSet<>();
+        final Queue<AxiomBitSet> queue = new ArrayDeque<>();
+        queue.add(AxiomBitSet.empty());
+        int nodeCounter = 0;
+        int reusedCounter = 0;
+
+        while (!queue.isEmpty()) {
+            final AxiomBitSet keptPath = queue.poll();
+            if (closedPaths.containsSubsetOf(keptPath.toList()))
+                continue;
+            if (!keptPath.isEmpty() && !budget.allowNode(keptPath.cardinality()))
+                continue;
+
+            nodeCounter++;
+            // a found diagnosis which doesn't remove any kept axiom is a label of the node too
+            AxiomBitSet diagnosis = diagnoses.stream().filter(d -> !d.intersects(keptPath)).findFirst().orElse(null);
+            if (diagnosis != null) {
+                reusedCounter++;
+            } else {
+                diagnosis = search.fastDiag(keptPath);
+                if (diagnosis == null) {
+                    closedPaths.add(keptPath.toList());
+                    continue;
+                }
+                diagnoses.add(diagnosis);
+                LOGGER.debug("New Diagnosis of size {} found for Entity: {}, Found: {}", diagnosis.cardinality(), entity, diagnoses.size());
+            }
+
+            diagnosis.stream().mapToObj(keptPath::with).filter(examinedPaths::add).forEach(queue::add);
+            checkpoint(entity, cache, () -> dictionary.toAxiomSets(diagnoses));
+        }
+        releaseTreeFork(ont, rootFork);
+        LOGGER.info("Inverse Hitset Tree for Entity: {} has Node: {}, Diagnoses: {}, ReusedLabels: {}, SatisfiabilityChecks: {}",
+                entity, nodeCounter, diagnoses.size(), reusedCounter, search.checkCounter);
+
+        final Set<Set<OWLAxiom>> diagnosisSets = dictionary.toAxiomSets(diagnoses);
+        final Set<Set<OWLAxiom>> hittingSets = HittingSets.minimal(diagnosisSets, Comparator.naturalOrder());
+        final Set<MUPS> mupsSet;
+        if (budget.isExhausted()) {
+            // hitting sets of some of the diagnoses are not necessarily MUPSs
+            mupsSet = shrinkToMUPSs(entity, hittingSets, log);
+        } else {
+            mupsSet = hittingSets.stream().map(axioms -> toMUPS(entity, axioms)).collect(Collectors.toSet());
+        }
+        final Bug bug = new Bug(entity, mupsSet, diagnosisSets);
+        if (budget.isExhausted()) {
+            LOGGER.warn("Search budget of {} is exhausted, its bug is incomplete", entity);
+            bug.markIncomplete();
+        }
+        return bug;
+    }
+
+    private Set<MUPS> shrinkToMUPSs(OWLEntity entity, Set<Set<OWLAxiom>> hittingSets, PerformanceLog log) {
+        final Set<MUPS> mupsSet = new HashSet<>();
+        final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        for (Set<OWLAxiom> hittingSet : hittingSets) {
+            try {
+                final OWLOntology candidateOntology = manager.createOntology(hittingSet);
+                // it returns null if the entity is satisfiable w.r.t. the hitting set
+                final MUPS mups = findRandomMUPS(candidateOntology, entity, mupsSet, log);
+                if (mups != null)
+                    mupsSet.add(mups);
+                manager.removeOntology(candidateOntology);
+            } catch (OWLOntologyCreationException e) {
+                LOGGER.catching(e);
+            }
+        }
+        return mupsSet;
+    }
+
+    /**
+     * FastDiag over the axioms of a module, axioms are represented by their ids in the dictionary
+     */
+    private class DiagnosisSearch {
+        private final OWLEntity entity;
+        private final AxiomDictionary dictionary;
+        private final OntologyFork rootFork;
+        private final PerformanceLog log;
+        private int checkCounter = 0;
+
+        private DiagnosisSearch(OWLEntity entity, AxiomDictionary dictionary, OntologyFork rootFork, PerformanceLog log) {
+            this.entity = entity;
+            this.dictionary = dictionary;
+            this.rootFork = rootFork;
+            this.log = log;
+        }
+
+        /**
+         * @param keptAxioms axioms which should not be in the diagnosis
+         * @return a minimal diagnosis which doesn't include the kept axioms, or null if there is no such diagnosis
+         */
+        private AxiomBitSet fastDiag(AxiomBitSet keptAxioms) {
+            final List<Integer> candidates = IntStream.range(0, dictionary.size()).filter(id -> !keptAxioms.get(id))
+                    .boxed().collect(Collectors.toList());
+            if (candidates.isEmpty())
+                return null;
+            final AxiomBitSet allCandidates = AxiomBitSet.of(candidates.stream().mapToInt(Integer::intValue).toArray());
+            // removing all of the candidates doesn't make the entity satisfiable
+            if (!keptAxioms.isEmpty() && !isSatisfiable(allCandidates))
+                return null;
+            return diagnose(false, candidates, AxiomBitSet.empty());
+        }
+
+        /**
+         * @param hasRemoved true if some axioms are removed since the parent call
+         * @param candidates axioms to be searched for the diagnosis
+         * @param removed    axioms which are removed from the module
+         * @return minimal subset of the candidates whose removal, along with the removed axioms, makes the entity satisfiable
+         */
+        private AxiomBitSet diagnose(boolean hasRemoved, List<Integer> candidates, AxiomBitSet removed) {
+            if (hasRemoved && isSatisfiable(removed))
+                return AxiomBitSet.empty();
+            if (candidates.size() == 1)
+                return AxiomBitSet.of(candidates.get(0));
+
+            final int middle = candidates.size() / 2;
+            final List<Integer> first = candidates.subList(0, middle);
+            final List<Integer> second = candidates.subList(middle, candidates.size());
+            final AxiomBitSet firstIds = AxiomBitSet.of(first.stream().mapToInt(Integer::intValue).toArray());
+            final AxiomBitSet secondDiagnosis = diagnose(true, second, removed.union(firstIds));
+            final AxiomBitSet firstDiagnosis = diagnose(!secondDiagnosis.isEmpty(), first, removed.union(secondDiagnosis));
+            return firstDiagnosis.union(secondDiagnosis);
+        }
+
+        private boolean isSatisfiable(AxiomBitSet removed) {
+            checkCounter++;
+            try (OntologyFork.Workspace workspace = rootFork.remove(dictionary.toAxioms(removed)).checkout()) {
+                return new SatisfiabilityOracle(workspace.getReasoner(), log, satisfiabilityCache).isSatisfiable(entity);
+            }
+        }
+    }
+}
@@ -6,10 +6,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
-import java.util.Collections;
-import java.util.Set;
+import java.util.*;
 
 /**
  * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
@@ -17,10 +15,19 @@ import java.util.Set;
  */
 public abstract class ExpandShrinkMUPSFinder implements MUPSFinder {
     private static final Logger LOGGER = LogManager.getLogger(ExpandShrinkMUPSFinder.class);
+    protected final SatisfiabilityCache satisfiabilityCache;
+
+    /**
+     * @param satisfiabilityCache cache shared by satisfiability checks, null to disable caching
+     */
+    protected ExpandShrinkMUPSFinder(SatisfiabilityCache satisfiabilityCache) {
+        this.satisfiabilityCache = satisfiabilityCache;
+    }
 
     @Override
     public Set<OWLAxiom> findMUPS(OWLOntology ont, OWLEntity entity, Set<MUPS> allMUPSs, PerformanceLog log) {
         Set<OWLAxiom> mups = Collections.emptySet();
+        log.getFindMUPSCalls().incrementAndGet();
 
         final OWLOntologyManager m = OWLManager.createOWLOntologyManager();
 
@@ -30,9 +37,9 @@ public abstract class ExpandShrinkMUPSFinder implements MUPSFinder {
         } catch (OWLOntologyCreationException e) {
             throw new RuntimeException(e);
         }
-        OWLReasoner reasoner = ReasonerFactory.getReasoner(temp);
+        SatisfiabilityOracle oracle = new SatisfiabilityOracle(ReasonerFactory.getReasoner(temp), log, satisfiabilityCache);
         Timer tempTimer = Timer.start("expand");
-        boolean found = expand(ont, entity, temp, reasoner, allMUPSs);
+        boolean found = expand(ont, entity, temp, oracle, allMUPSs);
         tempTimer.stop();
         log.getExpandTime().addAndGet(tempTimer.getElapsedTimeMillis());
 
@@ -41,12 +48,13 @@ public abstract class ExpandShrinkMUPSFinder implements MUPSFinder {
             LOGGER.debug("Pruning started with {} axioms ({}%)", temp.getAxiomCount(), temp.getAxiomCount() * 100 / ont.getAxiomCount());
             tempTimer = Timer.start("shrink");
             LOGGER.debug("{} start shrink", entity);
-            mups = shrink(entity, temp, reasoner, allMUPSs);
+            mups = shrink(entity, temp, oracle, allMUPSs);
             LOGGER.debug("{} finish shrink", entity);
             tempTimer.stop();
             log.getShrinkTime().addAndGet(tempTimer.getElapsedTimeMillis());
             LOGGER.debug("Pruning finished with {} axioms", mups.size());
         }
+        oracle.dispose();
         m.removeOntology(temp);
         return mups;
     }
@@ -57,22 +65,47 @@ public abstract class ExpandShrinkMUPSFinder implements MUPSFinder {
      * @param ont      ontology to select axioms to find MUPS
      * @param entity   class which should be unsatisfiable in temp
      * @param temp     empty ontology that will include MUPS axioms when the method returns
-     * @param reasoner an already initiated reasoner on temp
+     * @param oracle   satisfiability oracle of an already initiated reasoner on temp
      * @param allMUPSs
      * @return true if it could find an MUPS for clazz, otherwise returns false
      */
-    protected abstract boolean expand(OWLOntology ont, OWLEntity entity, OWLOntology temp, OWLReasoner reasoner, Set<MUPS> allMUPSs);
+    protected abstract boolean expand(OWLOntology ont, OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<MUPS> allMUPSs);
 
     /**
      * find an MUPS for clazz inside temp by shrinking it's free axioms
      *
      * @param entity   class that is unsatisfiable in temp
      * @param temp     ontology which includes at least one MUPS for clazz
-     * @param reasoner an already initiated reasoner on temp
+     * @param oracle   satisfiability oracle of an already initiated reasoner on temp
      * @param allMUPSs
      * @return set of OWLAxioms as an MUPS for clazz
      */
-    protected abstract Set<OWLAxiom> shrink(OWLEntity entity, OWLOntology temp, OWLReasoner reasoner, Set<MUPS> allMUPSs);
+    protected abstract Set<OWLAxiom> shrink(OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<MUPS> allMUPSs);
 
+    /**
+     * count the number of already found MUPSs including each axiom.
+     * Axioms which are not in ont (e.g. removed by the current path of the hitting set tree) are skipped.
+     *
+     * @param ont      ontology that is searched for a new MUPS
+     * @param allMUPSs already found MUPSs of the entity and related entities
+     * @return number of MUPSs including each axiom of ont, axioms of no MUPS are not in the map
+     */
+    protected static Map<OWLAxiom, Integer> getAxiomFrequencies(OWLOntology ont, Set<MUPS> allMUPSs) {
+        final Map<OWLAxiom, Integer> frequencies = new HashMap<>();
+        if (allMUPSs == null)
+            return frequencies;
+
+        // allMUPSs of parallel bug finders are concurrent sets, so they can be iterated while other threads add MUPSs
+        allMUPSs.forEach(mups -> mups.stream().filter(ont::containsAxiom)
+                .forEach(axiom -> frequencies.merge(axiom, 1, Integer::sum)));
+        return frequencies;
+    }
+
+    /**
+     * @return comparator which puts less frequent axioms first
+     */
+    protected static Comparator<OWLAxiom> byFrequency(Map<OWLAxiom, Integer> frequencies) {
+        return Comparator.comparingInt(axiom -> frequencies.getOrDefault(axiom, 0));
+    }
 
 }
@@ -0,0 +1,104 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import com.clarkparsia.owlapi.explanation.PelletExplanation;
+import com.clarkparsia.pellet.owlapiv3.PelletReasoner;
+import ir.ac.ui.ontodebugger.reasoner.ReasonerFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Glass box MUPS finder which gets the MUPS from a single traced tableau run of Pellet
+ * instead of black box expand/shrink probes.
+ * Axioms returned by Pellet could be checked by SWOOP pruning to ensure minimality of the MUPS,
+ * if Pellet could not explain the entity, the MUPS is found and pruned by SWOOP expand/shrink.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class GlassBoxMUPSFinder extends SwoopMUPSFinder {
+    private static final Logger LOGGER = LogManager.getLogger(GlassBoxMUPSFinder.class);
+
+    static {
+        // tracing should be enabled before creating Pellet reasoners
+        PelletExplanation.setup();
+    }
+
+    private final boolean verifyMinimality;
+    /* true if the MUPS of the current findMUPS call of the thread is expanded by Pellet, shrink is called by the same thread */
+    private final ThreadLocal<Boolean> explainedByPellet = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * @param verifyMinimality    if true, MUPS returned by Pellet is pruned to make sure that it is minimal
+     * @param satisfiabilityCache cache shared by satisfiability checks, null to disable caching
+     */
+    public GlassBoxMUPSFinder(boolean verifyMinimality, SatisfiabilityCache satisfiabilityCache) {
+        super(satisfiabilityCache);
+        this.verifyMinimality = verifyMinimality;
+    }
+
+    @Override
+    protected boolean expand(OWLOntology ont, OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<MUPS> allMUPSs) {
+        final Set<OWLAxiom> explanation = explain(ont, entity);
+        temp.getOWLOntologyManager().addAxioms(temp, explanation);
+        if (!explanation.isEmpty() && !oracle.isSatisfiable(entity)) {
+            explainedByPellet.set(true);
+            return true;
+        }
+
+        explainedByPellet.set(false);
+        LOGGER.warn("Pellet could not explain unsatisfiability of {}, continue with SWOOP expansion", entity);
+        return super.expand(ont, entity, temp, oracle, allMUPSs);
+    }
+
+    @Override
+    protected Set<OWLAxiom> shrink(OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<MUPS> allMUPSs) {
+        // axioms of SWOOP expansion are not minimal at all, so they are always shrunk
+        if (verifyMinimality || !explainedByPellet.get()) {
+            return super.shrink(entity, temp, oracle, allMUPSs);
+        } else {
+            return new HashSet<>(temp.getAxioms());
+        }
+    }
+
+    /**
+     * get axioms explaining unsatisfiability of the entity using Pellet tracing
+     *
+     * @param ont    ontology which entity is unsatisfiable in it
+     * @param entity unsatisfiable class or object property
+     * @return set of axioms returned by Pellet, empty set if entity could not be explained
+     */
+    private Set<OWLAxiom> explain(OWLOntology ont, OWLEntity entity) {
+        final OWLClassExpression unsatExpression = getUnsatisfiableExpression(entity);
+        if (unsatExpression == null) {
+            return Collections.emptySet();
+        }
+
+        final PelletReasoner pellet = ReasonerFactory.getPelletReasoner(ont);
+        try {
+            final Set<OWLAxiom> axioms = new PelletExplanation(pellet).getUnsatisfiableExplanation(unsatExpression);
+            return axioms == null ? Collections.emptySet() : axioms;
+        } catch (Exception e) {
+            LOGGER.catching(e);
+            return Collections.emptySet();
+        } finally {
+            pellet.dispose();
+        }
+    }
+
+    private OWLClassExpression getUnsatisfiableExpression(OWLEntity entity) {
+        final OWLDataFactory dataFactory = OWLManager.getOWLDataFactory();
+        if (entity instanceof OWLClass) {
+            return (OWLClass) entity;
+        } else if (entity instanceof OWLObjectProperty) {
+            return dataFactory.getOWLObjectSomeValuesFrom((OWLObjectProperty) entity, dataFactory.getOWLThing());
+        } else {
+            return null;
+        }
+    }
+}
@@ -1,20 +1,27 @@
 package ir.ac.ui.ontodebugger.mups;
 
 import ir.ac.ui.ontodebugger.Bug;
+import ir.ac.ui.ontodebugger.Configs;
 import ir.ac.ui.ontodebugger.KnowledgeBaseProfile;
-import ir.ac.ui.ontodebugger.reasoner.ReasonerFactory;
-import ir.ac.ui.ontodebugger.util.OntologyHelper;
+import ir.ac.ui.ontodebugger.util.AxiomBitSet;
+import ir.ac.ui.ontodebugger.util.AxiomDictionary;
+import ir.ac.ui.ontodebugger.util.MultiThreadProcess;
+import ir.ac.ui.ontodebugger.util.OntologyFork;
 import ir.ac.ui.ontodebugger.util.Renderer;
+import ir.ac.ui.ontodebugger.util.SetTrie;
 import ir.ac.ui.ontodebugger.util.Timer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -25,6 +32,7 @@ public class HitSetBugFinder extends BugFinder {
     private static final Logger LOGGER = LogManager.getLogger(HitSetBugFinder.class);
     private final boolean expandTreeInParallel;
     private final boolean synchronizedFindMups;
+    private final boolean asyncTreeExpansion = Configs.getInstance().isASYNC_TREE_EXPANSION();
 
     public HitSetBugFinder(KnowledgeBaseProfile profile, OWLOntology ontology, boolean expandTreeInParallel, boolean synchronizedFindMups) {
         super(profile, ontology);
@@ -36,10 +44,26 @@ public class HitSetBugFinder extends BugFinder {
     protected Bug findBug(OWLOntology ont, OWLEntity entity, Set<MUPS> cache, PerformanceLog log) {
         LOGGER.debug("Analysing unsatisfiable Entity:{} started...", entity);
         ReentrantLock lock = new ReentrantLock();
-        Set<MUPS> allMUPSs = new HashSet<>(cache);
-        final Set<Set<OWLAxiom>> satisfiablePaths = new HashSet<>();
-        final Set<Set<OWLAxiom>> examinedPaths = new HashSet<>();
-        List<TreeNode> notExpandedNodes = new ArrayList<>();
+        // shared state of the tree is kept in concurrent collections, so parallel expansion doesn't block on monitors
+        Set<MUPS> allMUPSs = ConcurrentHashMap.newKeySet();
+        allMUPSs.addAll(cache);
+        // paths and diagnoses are bit sets of axiom ids, they are converted to axioms when the bug is built
+        final AxiomDictionary dictionary = new AxiomDictionary(ont.getAxioms());
+        // ontology of each edge is a fork of the root, materialized in a pooled workspace only when it is checked
+        final OntologyFork rootFork = getTreeFork(ont);
+        final Set<AxiomBitSet> satisfiablePaths = ConcurrentHashMap.newKeySet();
+        // indexes of satisfiable and examined paths for early path termination
+        final SetTrie<Integer> satisfiablePathIndex = new SetTrie<>(Comparator.naturalOrder());
+        final Set<AxiomBitSet> examinedPaths = ConcurrentHashMap.newKeySet();
+        // a waiting node is expanded by the thread which removes it from this set
+        final Set<TreeNode> notExpandedNodes = ConcurrentHashMap.newKeySet();
+        final SearchBudget budget = newSearchBudget();
+        // diagnoses found by a previous run close their supersets, they may not be minimal in a resumed tree
+        final Set<AxiomBitSet> journaledDiagnoses = getJournaledDiagnoses(entity, dictionary);
+        journaledDiagnoses.forEach(path -> {
+            satisfiablePaths.add(path);
+            satisfiablePathIndex.add(path.toList());
+        });
 
         AtomicInteger earlyTerminationCounter = new AtomicInteger(0);
         AtomicInteger nodeCounter = new AtomicInteger(0);
@@ -53,136 +77,193 @@ public class HitSetBugFinder extends BugFinder {
             newMUPS = findRandomMUPS(ont, entity, allMUPSs, log);
             tempTimer.stop();
             log.getFindRandomMUPSTime().addAndGet(tempTimer.getElapsedTimeMillis());
-            allMUPSs.add(newMUPS);
         }
 
         if (newMUPS == null) {
             return null;
         }
+        allMUPSs.add(newMUPS);
 
-        notExpandedNodes.add(new TreeNode(newMUPS, new HashSet<>(), nodeCounter.incrementAndGet()));
+        final AsyncExpansion asyncExpansion = expandTreeInParallel && asyncTreeExpansion ? new AsyncExpansion() : null;
+        // children are expanded as soon as they are added in asynchronous mode, otherwise with the next level
+        final Consumer<TreeNode> addNode = node -> {
+            notExpandedNodes.add(node);
+            if (asyncExpansion != null)
+                asyncExpansion.submit(node);
+        };
 
-        while (!notExpandedNodes.isEmpty()) {
-            List<TreeNode> currentWaitingNodes = new ArrayList<>(notExpandedNodes);
-
-            if (expandTreeInParallel) {
-                LOGGER.debug("Expanding {} MUPS in parallel for Entity: {}", currentWaitingNodes.size(), entity);
+        final Consumer<TreeNode> expandNode = currentNode -> {
+            if (!notExpandedNodes.remove(currentNode) || currentNode.closed) {
+                LOGGER.trace("Node<{}> is closed before expansion", currentNode.nodeNumber);
+                return;
             }
 
-            getMupsPathPairExpanderStream(currentWaitingNodes).forEach(currentNode -> {
-                synchronized (notExpandedNodes) {
-                    notExpandedNodes.remove(currentNode);
+            final MUPS currentMUPS = currentNode.mups;
+            final AxiomBitSet currentPath = currentNode.path;
+            getMUPSExpanderStream(currentMUPS).forEach(axiom -> {
+                LOGGER.trace("Node<{}> is expanded by removing axiom: {}", currentNode.nodeNumber, axiom);
+                final AxiomBitSet path = currentPath.with(dictionary.getId(axiom));
+
+                if (isEarlyTerminated(path, satisfiablePathIndex, examinedPaths)) {
+                    LOGGER.trace("Path is early terminated!");
+                    earlyTerminationCounter.incrementAndGet();
+                    return;
                 }
 
-                final MUPS currentMUPS = currentNode.mups;
-                final Set<OWLAxiom> currentPath = currentNode.path;
-                getMUPSExpanderStream(currentMUPS).forEach(axiom -> {
-                    LOGGER.trace("Node<{}> is expanded by removing axiom: {}", currentNode.nodeNumber, axiom);
-                    Set<OWLAxiom> path = new HashSet<>(currentPath);
-                    path.add(axiom);
-
-                    synchronized (satisfiablePaths) {
-                        synchronized (examinedPaths) {
-                            if (isEarlyTerminated(path, satisfiablePaths, examinedPaths)) {
-                                LOGGER.trace("Path is early terminated!");
-                                earlyTerminationCounter.incrementAndGet();
-                                return;
-                            }
-                            // add to the list of examined paths
-                            examinedPaths.add(path);
-                        }
-                    }
+                if (!budget.allowNode(path.cardinality())) {
+                    LOGGER.trace("Path is not expanded, search budget is exhausted");
+                    return;
+                }
+
+                final MUPS reusedMUPS = reuseLabel(path, dictionary, allMUPSs);
+                if (reusedMUPS != null) {
+                    LOGGER.trace("Label of the new node is reused without checking the ontology");
+                    addNode.accept(new TreeNode(reusedMUPS, path, nodeCounter.incrementAndGet(), currentMUPS, axiom));
+                    return;
+                }
 
-                    // this path is not a superset for any other satisfiablePath
-                    final OWLOntologyManager m = OWLManager.createOWLOntologyManager();
+                // this path is not a superset for any other satisfiablePath
+                final OntologyFork fork = rootFork.remove(dictionary.toAxioms(path));
 
+                MUPS mups = getMUPSFromCache(fork::containsAxiom, allMUPSs);
+                boolean useCachedMUPS = false;
+                if (mups == null) {
+                    // try acquire lock to call find random MUPS
+                    boolean waited = false;
+                    if (synchronizedFindMups && !lock.tryLock()) {
+                        lock.lock();
+                        waited = true;
+                    }
 
                     try {
-                        OWLOntology temp = m.createOntology(ont.getAxioms());
-                        m.removeAxioms(temp, path);
+                        // a MUPS of the path may be found by the thread which held the lock
+                        if (waited) {
+                            mups = getMUPSFromCache(fork::containsAxiom, allMUPSs);
+                        }
 
-                        MUPS mups = getMUPSFromCache(temp, allMUPSs);
-                        boolean useCachedMUPS = false;
+                        // really call find Random MUPS method
                         if (mups == null) {
-                            // try acquire lock to call find random MUPS
-                            if (synchronizedFindMups) {
-                                final boolean locked = lock.tryLock();
-                                if (!locked) {
-                                    lock.lock();
-                                    mups = getMUPSFromCache(temp, allMUPSs);
-                                }
-                            }
-
-                            // really call find Random MUPS method
-                            if (mups == null) {
-                                final OWLReasoner reasoner = ReasonerFactory.getReasoner(temp);
-                                Timer satTimer = Timer.start("satCheck");
-                                final boolean satisfiable = OntologyHelper.isSatisfiable(reasoner, entity);
-                                satTimer.stop();
-                                log.getSatisfiableChecksTime().addAndGet(satTimer.getElapsedTimeMillis());
-                                if (!satisfiable) {
+                            try (OntologyFork.Workspace workspace = fork.checkout()) {
+                                final SatisfiabilityOracle oracle = new SatisfiabilityOracle(workspace.getReasoner(), log, satisfiabilityCache);
+                                if (!oracle.isSatisfiable(entity)) {
                                     Timer t = Timer.start("findRandomMUPS");
-                                    mups = findRandomMUPS(temp, entity, allMUPSs, log);
+                                    mups = findRandomMUPS(workspace.getOntology(), entity, allMUPSs, log);
                                     t.stop();
                                     log.getFindRandomMUPSTime().addAndGet(t.getElapsedTimeMillis());
                                 }
-                            } else {
-                                useCachedMUPS = true;
-                            }
-
-                            // release the lock
-                            if (synchronizedFindMups) {
-                                lock.unlock();
                             }
                         } else {
                             useCachedMUPS = true;
                         }
-
-                        if (mups == null) {
-                            // add to list of satisfiable paths
-                            synchronized (satisfiablePaths) {
-                                satisfiablePaths.add(new HashSet<>(path));
-                            }
-                            LOGGER.debug("New Diagnosis(Satisfiable path) of size {} found for Entity: {}, Found:{}", path.size(), entity, satisfiablePaths.size());
-                        } else {
-                            synchronized (allMUPSs) {
-                                if (!allMUPSs.contains(mups)) {
-                                    allMUPSs.add(mups);
-                                } else if (!useCachedMUPS) {
-                                    LOGGER.info("Entity {}, MUPS is found in Parallel and is useless!!!!", Renderer.render(entity));
-                                }
-                            }
-                            synchronized (notExpandedNodes) {
-                                notExpandedNodes.add(new TreeNode(mups, path, nodeCounter.incrementAndGet()));
-                            }
+                    } finally {
+                        // release the lock
+                        if (synchronizedFindMups) {
+                            lock.unlock();
                         }
-                        m.removeOntology(temp);
-                    } catch (OWLOntologyCreationException e) {
-                        LOGGER.catching(e);
                     }
-                });
+                } else {
+                    useCachedMUPS = true;
+                }
+
+                if (mups == null) {
+                    // add to list of satisfiable paths
+                    satisfiablePaths.add(path);
+                    satisfiablePathIndex.add(path.toList());
+                    LOGGER.debug("New Diagnosis(Satisfiable path) of size {} found for Entity: {}, Found:{}", path.cardinality(), entity, satisfiablePaths.size());
+                } else {
+                    if (allMUPSs.add(mups)) {
+                        onNewMUPS(mups, allMUPSs, notExpandedNodes, addNode);
+                    } else if (!useCachedMUPS) {
+                        LOGGER.info("Entity {}, MUPS is found in Parallel and is useless!!!!", Renderer.render(entity));
+                    }
+                    addNode.accept(new TreeNode(mups, path, nodeCounter.incrementAndGet(), currentMUPS, axiom));
+                }
             });
+            checkpoint(entity, allMUPSs, () -> dictionary.toAxiomSets(satisfiablePaths));
+        };
+
+        notExpandedNodes.add(new TreeNode(newMUPS, AxiomBitSet.empty(), nodeCounter.incrementAndGet()));
+
+        while (!notExpandedNodes.isEmpty()) {
+            List<TreeNode> currentWaitingNodes = new ArrayList<>(notExpandedNodes);
+
+            if (asyncExpansion != null) {
+                // nodes which are not submitted yet, i.e. the root
+                LOGGER.debug("Expanding {} MUPS asynchronously for Entity: {}", currentWaitingNodes.size(), entity);
+                asyncExpansion.expandAll(currentWaitingNodes, expandNode);
+                continue;
+            }
+
+            if (expandTreeInParallel) {
+                LOGGER.debug("Expanding {} MUPS in parallel for Entity: {}", currentWaitingNodes.size(), entity);
+            }
+
+            getMupsPathPairExpanderStream(currentWaitingNodes).forEach(expandNode);
+        }
+        if (asyncExpansion != null || !journaledDiagnoses.isEmpty()) {
+            // a longer path may be found satisfiable before its subset when nodes are not expanded level by level
+            final List<AxiomBitSet> nonMinimal = satisfiablePaths.stream()
+                    .filter(path -> satisfiablePaths.stream().anyMatch(other -> !other.equals(path) && path.containsAll(other)))
+                    .collect(Collectors.toList());
+            satisfiablePaths.removeAll(nonMinimal);
         }
+        releaseTreeFork(ont, rootFork);
         LOGGER.info("Hitset Tree for Entity: {} has Node: {}, SatisfiablePath: {}, EarlyTermination: {}",
                 entity, nodeCounter.get(), satisfiablePaths.size(), earlyTerminationCounter.get());
-        return new Bug(entity, allMUPSs, satisfiablePaths);
+        final Bug bug = new Bug(entity, allMUPSs, dictionary.toAxiomSets(satisfiablePaths));
+        if (budget.isExhausted()) {
+            LOGGER.warn("Search budget of {} is exhausted, its bug is incomplete", entity);
+            bug.markIncomplete();
+        }
+        if (asyncExpansion != null && asyncExpansion.failed) {
+            LOGGER.warn("Expansion of some nodes of {} is failed, its bug is incomplete", entity);
+            bug.markIncomplete();
+        }
+        return bug;
     }
 
-    protected boolean isEarlyTerminated(Set<OWLAxiom> path, Set<Set<OWLAxiom>> satisfiablePaths, Set<Set<OWLAxiom>> examinedPaths) {
-        synchronized (satisfiablePaths) {
-            // if this path is a super set of some satisfiable path, then this path is also a satisfiable path
-            if (satisfiablePaths.stream().anyMatch(path::containsAll)) {
-                LOGGER.trace("Early Path Termination: Path is a super set of a satisfiable path.");
-                return true;
-            }
+    /**
+     * find a label for a new node without checking the ontology, e.g. an already found MUPS which is not hit by the path
+     *
+     * @param path       path of the new node
+     * @param dictionary dictionary of axiom ids of the path
+     * @param allMUPSs   already found MUPSs
+     * @return label of the new node, or null if the ontology should be checked to find it
+     */
+    protected MUPS reuseLabel(AxiomBitSet path, AxiomDictionary dictionary, Set<MUPS> allMUPSs) {
+        return null;
+    }
+
+    /**
+     * called by the thread which added a new MUPS to allMUPSs, other threads may change the collections at the same time
+     *
+     * @param mups             the new MUPS
+     * @param allMUPSs         already found MUPSs including the new one
+     * @param notExpandedNodes nodes waiting for expansion, a node removed from this set by the method is not expanded
+     * @param addNode          adds a new node to the waiting nodes, it is submitted at once in asynchronous mode
+     */
+    protected void onNewMUPS(MUPS mups, Set<MUPS> allMUPSs, Set<TreeNode> notExpandedNodes, Consumer<TreeNode> addNode) {
+    }
+
+    /**
+     * check whether the path should be closed, otherwise it is added to the examined paths
+     *
+     * @param path             path to be checked
+     * @param satisfiablePaths index of satisfiable paths
+     * @param examinedPaths    examined paths
+     * @return true if the path should not be expanded
+     */
+    protected boolean isEarlyTerminated(AxiomBitSet path, SetTrie<Integer> satisfiablePaths, Set<AxiomBitSet> examinedPaths) {
+        // if this path is a super set of some satisfiable path, then this path is also a satisfiable path
+        if (satisfiablePaths.containsSubsetOf(path.toList())) {
+            LOGGER.trace("Early Path Termination: Path is a super set of a satisfiable path.");
+            return true;
         }
 
-        synchronized (examinedPaths) {
-            // if path is already examined, then no need to expand this path anymore
-            if (examinedPaths.stream().anyMatch(oldPath -> oldPath.equals(path))) {
-                LOGGER.trace("Early Path Termination: Path is already examined");
-                return true;
-            }
+        // if path is already examined, then no need to expand this path anymore
+        if (!examinedPaths.add(path)) {
+            LOGGER.trace("Early Path Termination: Path is already examined");
+            return true;
         }
         return false;
     }
@@ -203,15 +284,78 @@ public class HitSetBugFinder extends BugFinder {
         }
     }
 
+    /**
+     * Expansion of the tree without level barriers: each submitted node gets a task on the fork join pool which
+     * expands the waiting node with the shortest path, so children of a node are expanded as soon as its MUPS is known
+     * while shorter paths are still preferred.
+     */
+    private class AsyncExpansion {
+        private final PriorityBlockingQueue<TreeNode> pendingNodes = new PriorityBlockingQueue<>(11,
+                Comparator.comparingInt((TreeNode node) -> node.path.cardinality()).thenComparingInt(node -> node.nodeNumber));
+        private final AtomicInteger runningTasks = new AtomicInteger(0);
+        private volatile CompletableFuture<Void> finished;
+        private volatile Consumer<TreeNode> expandNode;
+        /* true if expansion of a node is failed, so its subtree is not searched */
+        private volatile boolean failed = false;
+
+        /**
+         * expand the nodes and all of their descendants, the method returns when there is no running task
+         */
+        private void expandAll(Collection<TreeNode> nodes, Consumer<TreeNode> expandNode) {
+            this.expandNode = expandNode;
+            finished = new CompletableFuture<>();
+            // the extra count keeps the round open until all of the nodes are submitted
+            runningTasks.incrementAndGet();
+            nodes.forEach(this::submit);
+            completeTask();
+            finished.join();
+        }
+
+        private void submit(TreeNode node) {
+            pendingNodes.add(node);
+            runningTasks.incrementAndGet();
+            MultiThreadProcess.forkJoinPool.execute(() -> {
+                try {
+                    final TreeNode next = pendingNodes.poll();
+                    if (next != null) {
+                        expandNode.accept(next);
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.catching(e);
+                    failed = true;
+                } finally {
+                    completeTask();
+                }
+            });
+        }
+
+        private void completeTask() {
+            if (runningTasks.decrementAndGet() == 0) {
+                finished.complete(null);
+            }
+        }
+    }
+
     protected class TreeNode {
         public final MUPS mups;
-        public final Set<OWLAxiom> path;
+        public final AxiomBitSet path;
         public final int nodeNumber;
+        /* label of the parent node and the axiom of the edge from the parent, both are null for the root */
+        public final MUPS parentMUPS;
+        public final OWLAxiom edge;
+        /* a closed node is not expanded anymore */
+        public volatile boolean closed = false;
+
+        private TreeNode(MUPS mups, AxiomBitSet path, int nodeNumber) {
+            this(mups, path, nodeNumber, null, null);
+        }
 
-        private TreeNode(MUPS mups, Set<OWLAxiom> path, int nodeNumber) {
+        protected TreeNode(MUPS mups, AxiomBitSet path, int nodeNumber, MUPS parentMUPS, OWLAxiom edge) {
             this.mups = mups;
             this.path = path;
             this.nodeNumber = nodeNumber;
+            this.parentMUPS = parentMUPS;
+            this.edge = edge;
         }
     }
 }
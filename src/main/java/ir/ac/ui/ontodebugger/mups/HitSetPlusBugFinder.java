@@ -0,0 +1,87 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import ir.ac.ui.ontodebugger.Bug;
+import ir.ac.ui.ontodebugger.KnowledgeBaseProfile;
+import ir.ac.ui.ontodebugger.util.AxiomBitSet;
+import ir.ac.ui.ontodebugger.util.AxiomDictionary;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Hitting set tree with Reiter's pruning rules as corrected by Greiner:
+ * <ul>
+ * <li>label reuse: a node is labeled by an already found MUPS which is not hit by its path, without any reasoning</li>
+ * <li>closing: a node is closed if its path is already examined or it is a superset of a satisfiable path</li>
+ * <li>pruning: when a new MUPS is a proper subset of a label, the label is replaced and edges of the removed axioms are pruned</li>
+ * </ul>
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class HitSetPlusBugFinder extends HitSetBugFinder {
+    private static final Logger LOGGER = LogManager.getLogger(HitSetPlusBugFinder.class);
+
+    public HitSetPlusBugFinder(KnowledgeBaseProfile profile, OWLOntology ontology, boolean expandTreeInParallel, boolean synchronizedFindMups) {
+        super(profile, ontology, expandTreeInParallel, synchronizedFindMups);
+    }
+
+    @Override
+    protected Bug findBug(OWLOntology ont, OWLEntity entity, Set<MUPS> cache, PerformanceLog log) {
+        final Bug bug = super.findBug(ont, entity, cache, log);
+        if (bug != null) {
+            // nodes expanded in parallel may find a diagnosis before its subset is found
+            final Set<Set<OWLAxiom>> diagnoses = bug.getDiagnoses();
+            final List<Set<OWLAxiom>> nonMinimal = diagnoses.stream()
+                    .filter(diagnosis -> diagnoses.stream().anyMatch(other -> other.size() < diagnosis.size() && diagnosis.containsAll(other)))
+                    .collect(Collectors.toList());
+            diagnoses.removeAll(nonMinimal);
+        }
+        return bug;
+    }
+
+    /**
+     * reuse the smallest already found MUPS which is not hit by the path
+     */
+    @Override
+    protected MUPS reuseLabel(AxiomBitSet path, AxiomDictionary dictionary, Set<MUPS> allMUPSs) {
+        return allMUPSs.stream()
+                .filter(mups -> mups.stream().allMatch(dictionary::contains))
+                .filter(mups -> mups.stream().noneMatch(axiom -> path.get(dictionary.getId(axiom))))
+                .min(Comparator.comparingInt(Set::size))
+                .orElse(null);
+    }
+
+    /**
+     * replace labels which are proper supersets of the new MUPS and prune waiting nodes of their removed axioms
+     */
+    @Override
+    protected void onNewMUPS(MUPS mups, Set<MUPS> allMUPSs, Set<TreeNode> notExpandedNodes, Consumer<TreeNode> addNode) {
+        final List<MUPS> nonMinimal = allMUPSs.stream()
+                .filter(old -> old.size() > mups.size() && old.containsAll(mups))
+                .collect(Collectors.toList());
+        if (nonMinimal.isEmpty())
+            return;
+
+        LOGGER.debug("{} non-minimal labels are replaced by a new MUPS of size {}", nonMinimal.size(), mups.size());
+        allMUPSs.removeAll(nonMinimal);
+        // a node is claimed by removing it, so it is either pruned here or expanded by another thread, not both
+        for (TreeNode node : notExpandedNodes) {
+            if (nonMinimal.contains(node.parentMUPS) && !mups.contains(node.edge)) {
+                // edge of an axiom which is not in the minimal label
+                if (notExpandedNodes.remove(node)) {
+                    node.closed = true;
+                }
+            } else if (nonMinimal.contains(node.mups) && notExpandedNodes.remove(node)) {
+                node.closed = true;
+                addNode.accept(new TreeNode(mups, node.path, node.nodeNumber, node.parentMUPS, node.edge));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * MUPS finder which starts shrinking from the syntactic locality based (⊥⊤*) module of the entity.
+ * The module preserves all entailments over the entity's signature, so it always includes an MUPS of the entity
+ * and is usually much smaller than the set of axioms reached by SWOOP expansion.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class LocalityModuleMUPSFinder extends QuickXplainMUPSFinder {
+    private static final Logger LOGGER = LogManager.getLogger(LocalityModuleMUPSFinder.class);
+
+    public LocalityModuleMUPSFinder(SatisfiabilityCache satisfiabilityCache) {
+        super(satisfiabilityCache);
+    }
+
+    @Override
+    protected boolean expand(OWLOntology ont, OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<MUPS> allMUPSs) {
+        final SyntacticLocalityModuleExtractor extractor =
+                new SyntacticLocalityModuleExtractor(ont.getOWLOntologyManager(), ont, ModuleType.STAR);
+        final Set<OWLAxiom> module = extractor.extract(Collections.singleton(entity));
+        LOGGER.trace("Locality module of {} has {} axioms out of {}", entity, module.size(), ont.getAxiomCount());
+
+        temp.getOWLOntologyManager().addAxioms(temp, module);
+        if (!oracle.isSatisfiable(entity)) {
+            return true;
+        }
+
+        // module should always include an MUPS, fall back to SWOOP expansion just in case
+        LOGGER.warn("Locality module of {} does not include any MUPS, continue with SWOOP expansion", entity);
+        return super.expand(ont, entity, temp, oracle, allMUPSs);
+    }
+}
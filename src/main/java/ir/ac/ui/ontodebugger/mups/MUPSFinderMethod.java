@@ -5,6 +5,9 @@ package ir.ac.ui.ontodebugger.mups;
  */
 public enum MUPSFinderMethod {
     SWOOP,
+    QUICKXPLAIN,
+    LOCALITY,
+    GLASSBOX,
     FOURSTEPS,
     FIVESTEPS;
 }
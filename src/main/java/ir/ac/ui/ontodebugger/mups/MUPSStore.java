@@ -0,0 +1,47 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Run-scoped store of MUPSs found for all of the entities, indexed by their axioms.
+ * MUPSs of an entity are often shared by other entities (e.g. its subclasses),
+ * so they are candidates to seed hitting set trees of other entities.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+class MUPSStore {
+    private final Map<OWLAxiom, Set<Set<OWLAxiom>>> index = new ConcurrentHashMap<>();
+
+    /**
+     * add copies of the given MUPSs to the store, so later changes of the MUPSs don't affect the store
+     */
+    void publish(Collection<MUPS> mupsSet) {
+        for (MUPS mups : mupsSet) {
+            final Set<OWLAxiom> axioms = Collections.unmodifiableSet(new HashSet<>(mups));
+            axioms.forEach(axiom -> index.computeIfAbsent(axiom, key -> ConcurrentHashMap.newKeySet()).add(axioms));
+        }
+    }
+
+    /**
+     * find stored axiom sets which may make the entity unsatisfiable in the module:
+     * all of their axioms are in the module and at least one of them refers to the entity
+     *
+     * @param module module of the entity
+     * @param entity unsatisfiable entity
+     * @return candidate axiom sets, they should be checked to make the entity unsatisfiable
+     */
+    Set<Set<OWLAxiom>> getCandidates(OWLOntology module, OWLEntity entity) {
+        final Set<Set<OWLAxiom>> candidates = new HashSet<>();
+        module.getReferencingAxioms(entity).stream()
+                .map(index::get)
+                .filter(Objects::nonNull)
+                .forEach(stored -> stored.stream().filter(axioms -> axioms.stream().allMatch(module::containsAxiom)).forEach(candidates::add));
+        return candidates;
+    }
+}
@@ -1,18 +1,20 @@
 package ir.ac.ui.ontodebugger.mups;
 
 import ir.ac.ui.ontodebugger.Bug;
+import ir.ac.ui.ontodebugger.Configs;
 import ir.ac.ui.ontodebugger.KnowledgeBaseProfile;
-import ir.ac.ui.ontodebugger.reasoner.ReasonerFactory;
-import ir.ac.ui.ontodebugger.util.OntologyHelper;
+import ir.ac.ui.ontodebugger.util.AxiomBitSet;
+import ir.ac.ui.ontodebugger.util.AxiomDictionary;
+import ir.ac.ui.ontodebugger.util.OntologyFork;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.semanticweb.owlapi.apibinding.OWLManager;
-import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
 
 import javax.annotation.Nonnull;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -21,6 +23,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class PDFHitSetBugFinder extends DFHitSetBugFinder {
     private static final Logger LOGGER = LogManager.getLogger(PDFHitSetBugFinder.class);
+    /* subtrees below this depth are expanded sequentially in one workspace, 0 means forking at all depths */
+    private final int parallelDepth = Configs.getInstance().getPARALLEL_TREE_DEPTH();
 
     public PDFHitSetBugFinder(KnowledgeBaseProfile profile, OWLOntology ontology) {
         super(profile, ontology);
@@ -29,82 +33,94 @@ public class PDFHitSetBugFinder extends DFHitSetBugFinder {
     @Override
     protected Bug findBug(OWLOntology ont, OWLEntity entity, Set<MUPS> cache, PerformanceLog log) {
         LOGGER.debug("Analysing unsatisfiable Class:{} started...", entity);
-        Set<MUPS> allMUPSs = new HashSet<>(cache);
-        final Set<Set<OWLAxiom>> satisfiablePaths = new HashSet<>();
+        Set<MUPS> allMUPSs = ConcurrentHashMap.newKeySet();
+        allMUPSs.addAll(cache);
+        // paths and diagnoses are bit sets of axiom ids, they are converted to axioms when the bug is built
+        final AxiomDictionary dictionary = new AxiomDictionary(ont.getAxioms());
+        final Set<AxiomBitSet> satisfiablePaths = ConcurrentHashMap.newKeySet();
+        satisfiablePaths.addAll(getJournaledDiagnoses(entity, dictionary));
 
         AtomicInteger earlyTerminationCounter = new AtomicInteger(0);
         AtomicInteger nodeCounter = new AtomicInteger(0);
+        final SearchBudget budget = newSearchBudget();
 
         final MUPS newMUPS = getMUPS(ont, entity, allMUPSs, log);
         if (newMUPS != null) {
             allMUPSs.add(newMUPS);
-            hitSetFindMups(ont, entity, allMUPSs, newMUPS, new HashSet<>(), satisfiablePaths, nodeCounter, earlyTerminationCounter, log);
+            final OntologyFork rootFork = getTreeFork(ont);
+            hitSetFindMups(rootFork, entity, allMUPSs, newMUPS, AxiomBitSet.empty(), satisfiablePaths, dictionary, budget, nodeCounter, earlyTerminationCounter, log);
+            releaseTreeFork(ont, rootFork);
 
             LOGGER.info("Hitset Tree for {} has Node: {}, SatisfiablePath: {}, EarlyTermination: {} ",
                     entity, nodeCounter.get(), satisfiablePaths.size(), earlyTerminationCounter.get());
-            return new Bug(entity, allMUPSs, satisfiablePaths);
+            final Bug bug = new Bug(entity, allMUPSs, dictionary.toAxiomSets(satisfiablePaths));
+            if (budget.isExhausted()) {
+                LOGGER.warn("Search budget of {} is exhausted, its bug is incomplete", entity);
+                bug.markIncomplete();
+            }
+            return bug;
         } else
             return null;
     }
 
-    protected void hitSetFindMups(@Nonnull OWLOntology ont,
+    protected void hitSetFindMups(@Nonnull OntologyFork fork,
                                   @Nonnull OWLEntity entity,
                                   @Nonnull Set<MUPS> allMUPSs,
                                   @Nonnull MUPS currentMUPS,
-                                  @Nonnull Set<OWLAxiom> currentPath,
-                                  @Nonnull Set<Set<OWLAxiom>> satisfiablePaths,
+                                  @Nonnull AxiomBitSet currentPath,
+                                  @Nonnull Set<AxiomBitSet> satisfiablePaths,
+                                  @Nonnull AxiomDictionary dictionary,
+                                  @Nonnull SearchBudget budget,
                                   @Nonnull AtomicInteger nodeCounter,
                                   @Nonnull AtomicInteger earlyTerminationCounter, PerformanceLog log) {
+        if (parallelDepth > 0 && currentPath.cardinality() >= parallelDepth) {
+            // depth first in place like DFHitSet, the workspace and its reasoner are reused by the whole subtree
+            try (OntologyFork.Workspace workspace = fork.checkout()) {
+                final SatisfiabilityOracle oracle = new SatisfiabilityOracle(workspace.getReasoner(), log, satisfiabilityCache);
+                hitSetFindMups(workspace.getOntology(), entity, allMUPSs, currentMUPS, currentPath, satisfiablePaths, dictionary,
+                        oracle, budget, nodeCounter, earlyTerminationCounter, log);
+            }
+            return;
+        }
+
         LOGGER.trace("HitSet Algorithm for class:{}, allMUPSs:{}, Diagnoses:{}, CurrentPath:{}",
-                entity, allMUPSs.size(), satisfiablePaths.size(), currentPath.size());
+                entity, allMUPSs.size(), satisfiablePaths.size(), currentPath.cardinality());
         nodeCounter.incrementAndGet();
 
         currentMUPS.parallelStream().forEach(axiom -> {
-            Set<OWLAxiom> path = new HashSet<>(currentPath);
-            path.add(axiom);
+            final AxiomBitSet path = currentPath.with(dictionary.getId(axiom));
 
-            final boolean earlyTermination;
-            synchronized (satisfiablePaths) {
-                earlyTermination = satisfiablePaths.stream().anyMatch(path::containsAll);
-            }
-            if (earlyTermination) {
+            if (satisfiablePaths.stream().anyMatch(path::containsAll)) {
                 LOGGER.trace("Early Path Termination");
                 earlyTerminationCounter.incrementAndGet();
                 return;
             }
+            if (!budget.allowNode(path.cardinality())) {
+                LOGGER.trace("Path is not expanded, search budget is exhausted");
+                return;
+            }
 
-            // this path is not a superset for any other satisfiablePath
-            final OWLOntologyManager m = OWLManager.createOWLOntologyManager();
-
-            try {
-                OWLOntology temp = m.createOntology(ont.getAxioms());
-                m.removeAxiom(temp, axiom);
-
-                final OWLReasoner reasoner = ReasonerFactory.getReasoner(temp);
-
-                MUPS mups = null;
-                if (!OntologyHelper.isSatisfiable(reasoner, entity)) {
-                    mups = getMUPS(temp, entity, allMUPSs, log);
+            // this path is not a superset for any other satisfiablePath, the child fork shares the axioms of the root
+            final OntologyFork child = fork.remove(Collections.singleton(axiom));
+            MUPS mups = null;
+            // the workspace is closed before recursion, so the number of ontology copies is bounded by parallelism
+            try (OntologyFork.Workspace workspace = child.checkout()) {
+                final SatisfiabilityOracle oracle = new SatisfiabilityOracle(workspace.getReasoner(), log, satisfiabilityCache);
+                if (!oracle.isSatisfiable(entity)) {
+                    mups = getMUPS(workspace.getOntology(), entity, allMUPSs, log);
                 }
+            }
 
-
-                if (mups == null) {
-                    LOGGER.debug("New Diagnosis(Satisfiable path) found for class: {}", entity);
-                    // add to list of satisfiable paths
-                    synchronized (satisfiablePaths) {
-                        satisfiablePaths.add(new HashSet<>(path));
-                    }
-                } else {
-                    if (!allMUPSs.contains(mups)) {
-                        allMUPSs.add(mups);
-                    }
-                    // Recursively build the HitSet Tree
-                    hitSetFindMups(temp, entity, allMUPSs, mups, path, satisfiablePaths, nodeCounter, earlyTerminationCounter, log);
-                }
-                m.removeOntology(temp);
-            } catch (OWLOntologyCreationException e) {
-                LOGGER.catching(e);
+            if (mups == null) {
+                LOGGER.debug("New Diagnosis(Satisfiable path) found for class: {}", entity);
+                // add to list of satisfiable paths
+                satisfiablePaths.add(path);
+            } else {
+                allMUPSs.add(mups);
+                // Recursively build the HitSet Tree
+                hitSetFindMups(child, entity, allMUPSs, mups, path, satisfiablePaths, dictionary, budget, nodeCounter, earlyTerminationCounter, log);
             }
         });
+        checkpoint(entity, allMUPSs, () -> dictionary.toAxiomSets(satisfiablePaths));
     }
 }
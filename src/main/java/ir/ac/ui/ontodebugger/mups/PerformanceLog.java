@@ -12,17 +12,30 @@ import java.util.concurrent.atomic.AtomicLong;
 @Data
 public class PerformanceLog {
     AtomicLong findRandomMUPSTime = new AtomicLong(0);
+    AtomicLong findMUPSCalls = new AtomicLong(0);
+    AtomicLong satisfiableChecks = new AtomicLong(0);
     AtomicLong satisfiableChecksTime = new AtomicLong(0);
+    AtomicLong satisfiabilityCacheHits = new AtomicLong(0);
+    AtomicLong satisfiabilityCacheMisses = new AtomicLong(0);
 
     AtomicLong expandTime = new AtomicLong(0);
     AtomicLong shrinkTime = new AtomicLong(0);
 
 
+    public double getSatisfiabilityCacheHitRatio() {
+        final long hits = satisfiabilityCacheHits.get();
+        final long total = hits + satisfiabilityCacheMisses.get();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
     @Override
     public String toString() {
         return "PerformanceLog{" +
                 "findRandomMUPSTime=" + Timer.getFormattedTime(findRandomMUPSTime.longValue()) +
+                ", findMUPSCalls=" + findMUPSCalls +
+                ", satisfiableChecks=" + satisfiableChecks +
                 ", satisfiableChecksTime=" + Timer.getFormattedTime(satisfiableChecksTime.longValue()) +
+                ", satisfiabilityCacheHitRatio=" + String.format("%.2f", getSatisfiabilityCacheHitRatio()) +
                 ", expandTime=" + Timer.getFormattedTime(expandTime.longValue()) +
                 ", shrinkTime=" + Timer.getFormattedTime(shrinkTime.longValue()) +
                 '}';
@@ -0,0 +1,97 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * MUPS finder which expands like SWOOP but shrinks using QuickXplain's divide and conquer strategy,
+ * so the number of satisfiability checks grows with |MUPS| * log(|expanded axioms|) instead of |expanded axioms|.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class QuickXplainMUPSFinder extends SwoopMUPSFinder {
+    private static final Logger LOGGER = LogManager.getLogger(QuickXplainMUPSFinder.class);
+
+    public QuickXplainMUPSFinder(SatisfiabilityCache satisfiabilityCache) {
+        super(satisfiabilityCache);
+    }
+
+    @Override
+    protected Set<OWLAxiom> shrink(OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<MUPS> allMUPSs) {
+        final List<OWLAxiom> axioms = new ArrayList<>(temp.getAxioms());
+        // first half of axioms is kept as background while the second half is shrunk,
+        // so axioms of more already found MUPSs are put first
+        axioms.sort(byFrequency(getAxiomFrequencies(temp, allMUPSs)).reversed().thenComparing(Comparator.naturalOrder()));
+        final Set<OWLAxiom> loaded = new HashSet<>(axioms);
+
+        LOGGER.trace("QuickXplain started with {} axioms.", axioms.size());
+        return quickXplain(entity, temp, oracle, loaded, new HashSet<>(), false, axioms);
+    }
+
+    /**
+     * find a minimal subset of axioms which makes the entity unsatisfiable together with the background axioms
+     *
+     * @param entity            entity which is unsatisfiable in background + axioms
+     * @param temp              ontology used for satisfiability checks
+     * @param oracle            satisfiability oracle of an already initiated reasoner on temp
+     * @param loaded            axioms currently loaded into temp
+     * @param background        axioms that are assumed to be kept
+     * @param backgroundChanged true if some axioms are added to background by the caller
+     * @param axioms            candidate axioms to select MUPS axioms among them
+     * @return minimal subset of axioms which makes the entity unsatisfiable along with background
+     */
+    private Set<OWLAxiom> quickXplain(OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<OWLAxiom> loaded,
+                                      Set<OWLAxiom> background, boolean backgroundChanged, List<OWLAxiom> axioms) {
+        if (backgroundChanged && !isSatisfiable(entity, temp, oracle, loaded, background)) {
+            // background is already unsatisfiable, so none of the axioms is needed
+            return new HashSet<>();
+        }
+
+        if (axioms.size() == 1) {
+            return new HashSet<>(axioms);
+        }
+
+        final int half = axioms.size() / 2;
+        final List<OWLAxiom> firstHalf = axioms.subList(0, half);
+        final List<OWLAxiom> secondHalf = axioms.subList(half, axioms.size());
+
+        Set<OWLAxiom> newBackground = new HashSet<>(background);
+        newBackground.addAll(firstHalf);
+        final Set<OWLAxiom> secondPart = quickXplain(entity, temp, oracle, loaded, newBackground, true, secondHalf);
+
+        newBackground = new HashSet<>(background);
+        newBackground.addAll(secondPart);
+        final Set<OWLAxiom> firstPart = quickXplain(entity, temp, oracle, loaded, newBackground, !secondPart.isEmpty(), firstHalf);
+
+        firstPart.addAll(secondPart);
+        return firstPart;
+    }
+
+    /**
+     * load exactly the given axioms into temp and check satisfiability of the entity
+     *
+     * @param loaded axioms currently loaded into temp, it is updated to the given axioms
+     * @param axioms axioms that should be in temp when the reasoner is called
+     * @return true if the entity is satisfiable w.r.t. the given axioms
+     */
+    private boolean isSatisfiable(OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<OWLAxiom> loaded, Set<OWLAxiom> axioms) {
+        final OWLOntologyManager m = temp.getOWLOntologyManager();
+        final Set<OWLAxiom> toBeRemoved = loaded.stream().filter(axiom -> !axioms.contains(axiom)).collect(Collectors.toSet());
+        final Set<OWLAxiom> toBeAdded = axioms.stream().filter(axiom -> !loaded.contains(axiom)).collect(Collectors.toSet());
+
+        m.removeAxioms(temp, toBeRemoved);
+        m.addAxioms(temp, toBeAdded);
+        loaded.removeAll(toBeRemoved);
+        loaded.addAll(toBeAdded);
+
+        return oracle.isSatisfiable(entity);
+    }
+}
@@ -0,0 +1,134 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+
+/**
+ * Split unsatisfiable entities into root and derived ones.
+ * An entity is derived if one of its told (asserted) named super entities is unsatisfiable too,
+ * so it is unsatisfiable at least because of its parent and the axiom linking them.
+ * Bug of a derived entity can be composed from the bug of its parent instead of building a new hitting set tree.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+class RootEntityAnalyser {
+    private static final Logger LOGGER = LogManager.getLogger(RootEntityAnalyser.class);
+
+    private final Map<OWLEntity, OWLEntity> parents = new HashMap<>();
+    private final Map<OWLEntity, OWLAxiom> links = new HashMap<>();
+    private final Set<OWLEntity> roots = new HashSet<>();
+
+    RootEntityAnalyser(OWLOntology ont, Set<OWLEntity> unsatEntities) {
+        for (OWLEntity entity : unsatEntities) {
+            getToldParents(ont, entity).entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(entity) && unsatEntities.contains(entry.getKey()))
+                    .min(Map.Entry.comparingByKey())
+                    .ifPresent(entry -> {
+                        parents.put(entity, entry.getKey());
+                        links.put(entity, entry.getValue());
+                    });
+        }
+
+        // break cycles of told parents (e.g. equivalent classes asserted by two subclass axioms)
+        final List<OWLEntity> derived = new ArrayList<>(parents.keySet());
+        Collections.sort(derived);
+        for (OWLEntity entity : derived) {
+            final Set<OWLEntity> visited = new HashSet<>();
+            OWLEntity current = entity;
+            while (current != null && visited.add(current)) {
+                current = parents.get(current);
+            }
+            if (current != null) { // current is on a cycle, so it is considered as a root
+                parents.remove(current);
+                links.remove(current);
+            }
+        }
+
+        unsatEntities.stream().filter(entity -> !parents.containsKey(entity)).forEach(roots::add);
+        LOGGER.info("{} root and {} derived unsatisfiable entities", roots.size(), parents.size());
+    }
+
+    /**
+     * @return entities which have no unsatisfiable told parent
+     */
+    Set<OWLEntity> getRoots() {
+        return Collections.unmodifiableSet(roots);
+    }
+
+    /**
+     * group derived entities by their distance from their root, so parents of each group are in the previous groups
+     *
+     * @return groups of derived entities, in order of distance from roots
+     */
+    List<Set<OWLEntity>> getDerivedLevels() {
+        final Map<OWLEntity, Integer> depths = new HashMap<>();
+        final List<Set<OWLEntity>> levels = new ArrayList<>();
+        for (OWLEntity entity : parents.keySet()) {
+            final int depth = getDepth(entity, depths);
+            while (levels.size() < depth) {
+                levels.add(new HashSet<>());
+            }
+            levels.get(depth - 1).add(entity);
+        }
+        return levels;
+    }
+
+    private int getDepth(OWLEntity entity, Map<OWLEntity, Integer> depths) {
+        final Deque<OWLEntity> chain = new ArrayDeque<>();
+        OWLEntity current = entity;
+        while (parents.containsKey(current) && !depths.containsKey(current)) {
+            chain.push(current);
+            current = parents.get(current);
+        }
+        int depth = depths.getOrDefault(current, 0);
+        while (!chain.isEmpty()) {
+            depths.put(chain.pop(), ++depth);
+        }
+        return depths.get(entity);
+    }
+
+    OWLEntity getParent(OWLEntity entity) {
+        return parents.get(entity);
+    }
+
+    /**
+     * @return told axiom which makes the entity a sub entity of its parent
+     */
+    OWLAxiom getLink(OWLEntity entity) {
+        return links.get(entity);
+    }
+
+    /**
+     * compose candidate diagnoses of a derived entity: removing the link or any diagnosis of the parent
+     *
+     * @param entity          derived entity
+     * @param parentDiagnoses diagnoses of the parent entity
+     * @return minimal candidate diagnoses of the entity
+     */
+    Set<Set<OWLAxiom>> composeDiagnoses(OWLEntity entity, Set<Set<OWLAxiom>> parentDiagnoses) {
+        final OWLAxiom link = getLink(entity);
+        final Set<Set<OWLAxiom>> diagnoses = new HashSet<>();
+        // diagnoses including the link are not minimal anymore
+        parentDiagnoses.stream().filter(diagnosis -> !diagnosis.contains(link)).map(HashSet::new).forEach(diagnoses::add);
+        diagnoses.add(new HashSet<>(Collections.singleton(link)));
+        return diagnoses;
+    }
+
+    private static Map<OWLEntity, OWLAxiom> getToldParents(OWLOntology ont, OWLEntity entity) {
+        final Map<OWLEntity, OWLAxiom> toldParents = new HashMap<>();
+        if (entity instanceof OWLClass) {
+            ont.getSubClassAxiomsForSubClass((OWLClass) entity).stream()
+                    .filter(axiom -> !axiom.getSuperClass().isAnonymous())
+                    .forEach(axiom -> toldParents.putIfAbsent(axiom.getSuperClass().asOWLClass(), axiom));
+        } else if (entity instanceof OWLObjectProperty) {
+            ont.getObjectSubPropertyAxiomsForSubProperty((OWLObjectProperty) entity).stream()
+                    .filter(axiom -> !axiom.getSuperProperty().isAnonymous())
+                    .forEach(axiom -> toldParents.putIfAbsent(axiom.getSuperProperty().asOWLObjectProperty(), axiom));
+        }
+        return toldParents;
+    }
+}
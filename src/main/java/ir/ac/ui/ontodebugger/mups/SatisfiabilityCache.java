@@ -0,0 +1,158 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import javax.annotation.Nonnull;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe, size bounded cache of satisfiability results of entities over axiom sets.
+ * Exact results are keyed by the entity and the axiom set, an order independent fingerprint of the axiom set is
+ * used as its hash code. Besides that a few recent axiom sets of the cache are indexed per entity to answer by
+ * monotonicity: a superset of an unsatisfiable set is unsatisfiable and a subset of a satisfiable set is satisfiable.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class SatisfiabilityCache {
+    private static final int MONOTONE_SETS_PER_ENTITY = 32;
+
+    private final int capacity;
+    private final Map<Key, Boolean> results = new ConcurrentHashMap<>();
+    private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<>();
+    // they refer to keys of the results, so they are bounded by the capacity too
+    private final Map<OWLEntity, Deque<Key>> unsatisfiableSets = new ConcurrentHashMap<>();
+    private final Map<OWLEntity, Deque<Key>> satisfiableSets = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity maximum number of axiom sets kept in the cache
+     */
+    public SatisfiabilityCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * get the cached satisfiability of the entity w.r.t. the axioms
+     *
+     * @param entity class or property
+     * @param axioms all of the axioms of the ontology, it is not kept by the cache
+     * @return cached result or null if it is not known
+     */
+    public Boolean get(@Nonnull OWLEntity entity, @Nonnull Set<OWLAxiom> axioms) {
+        final Boolean result = results.get(new Key(entity, axioms));
+        if (result != null) {
+            return result;
+        }
+
+        final Deque<Key> unsatisfiable = unsatisfiableSets.get(entity);
+        if (unsatisfiable != null && unsatisfiable.stream().anyMatch(key -> axioms.containsAll(key.axioms))) {
+            return false;
+        }
+
+        final Deque<Key> satisfiable = satisfiableSets.get(entity);
+        if (satisfiable != null && satisfiable.stream().anyMatch(key -> key.axioms.containsAll(axioms))) {
+            return true;
+        }
+        return null;
+    }
+
+    /**
+     * store satisfiability of the entity w.r.t. the axioms
+     *
+     * @param axioms axiom set, it should not be changed after calling this method
+     */
+    public void put(@Nonnull OWLEntity entity, @Nonnull Set<OWLAxiom> axioms, boolean satisfiable) {
+        final Key key = new Key(entity, axioms);
+        if (results.putIfAbsent(key, satisfiable) != null) {
+            return;
+        }
+
+        final Deque<Key> keys = getMonotoneSets(satisfiable).computeIfAbsent(entity, e -> new ConcurrentLinkedDeque<>());
+        keys.addFirst(key);
+        while (keys.size() > MONOTONE_SETS_PER_ENTITY) {
+            keys.pollLast();
+        }
+
+        // the key is queued after it is indexed, so it is not evicted before that
+        insertionOrder.add(key);
+        while (results.size() > capacity) {
+            final Key oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            final Boolean result = results.remove(oldest);
+            if (result != null) {
+                final Deque<Key> oldestKeys = getMonotoneSets(result).get(oldest.entity);
+                if (oldestKeys != null) {
+                    oldestKeys.remove(oldest);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of axiom sets kept in the cache
+     */
+    public int size() {
+        return results.size();
+    }
+
+    private Map<OWLEntity, Deque<Key>> getMonotoneSets(boolean satisfiable) {
+        return satisfiable ? satisfiableSets : unsatisfiableSets;
+    }
+
+    /**
+     * Cache key of the entity and the axiom set, the fingerprint of the axiom set is its hash code
+     * and the axiom sets are compared only if the fingerprints are equal
+     */
+    private static final class Key {
+        private final OWLEntity entity;
+        private final Set<OWLAxiom> axioms;
+        private final long fingerprint;
+
+        private Key(OWLEntity entity, Set<OWLAxiom> axioms) {
+            this.entity = entity;
+            this.axioms = axioms;
+            long sum = 0;
+            for (OWLAxiom axiom : axioms) {
+                sum += mix(axiom.hashCode());
+            }
+            this.fingerprint = sum;
+        }
+
+        /**
+         * spread bits of the hash code over 64 bits (finalizer of MurmurHash3)
+         */
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return fingerprint == key.fingerprint && axioms.size() == key.axioms.size() && entity.equals(key.entity)
+                    && axioms.equals(key.axioms);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = entity.hashCode();
+            result = 31 * result + (int) (fingerprint ^ (fingerprint >>> 32));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import ir.ac.ui.ontodebugger.reasoner.ReasonerFactory;
+import ir.ac.ui.ontodebugger.util.OntologyHelper;
+import ir.ac.ui.ontodebugger.util.Timer;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import javax.annotation.Nonnull;
+import java.util.HashSet;
+
+/**
+ * Answers satisfiability of a single entity w.r.t. the root ontology of a reasoner by a targeted test,
+ * and counts and times the checks into the given PerformanceLog.
+ * If a SatisfiabilityCache is given, cached results are returned without calling the reasoner.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class SatisfiabilityOracle {
+    private final OWLReasoner reasoner;
+    private final PerformanceLog log;
+    private final SatisfiabilityCache cache;
+
+    public SatisfiabilityOracle(@Nonnull OWLReasoner reasoner, @Nonnull PerformanceLog log) {
+        this(reasoner, log, null);
+    }
+
+    /**
+     * @param cache shared cache of satisfiability results, null to disable caching
+     */
+    public SatisfiabilityOracle(@Nonnull OWLReasoner reasoner, @Nonnull PerformanceLog log, SatisfiabilityCache cache) {
+        this.reasoner = reasoner;
+        this.log = log;
+        this.cache = cache;
+    }
+
+    /**
+     * check satisfiability of the entity in the current state of the ontology
+     *
+     * @param entity class or object property to be checked
+     * @return true if entity is satisfiable
+     */
+    public boolean isSatisfiable(@Nonnull OWLEntity entity) {
+        if (cache != null) {
+            // the axioms are looked up as they are, they are copied only if a new result is stored
+            final Boolean cached = cache.get(entity, getOntology().getAxioms());
+            if (cached != null) {
+                log.getSatisfiabilityCacheHits().incrementAndGet();
+                return cached;
+            }
+            log.getSatisfiabilityCacheMisses().incrementAndGet();
+        }
+
+        Timer timer = Timer.start("satCheck");
+        final boolean satisfiable = OntologyHelper.isSatisfiable(reasoner, entity);
+        timer.stop();
+        log.getSatisfiableChecks().incrementAndGet();
+        log.getSatisfiableChecksTime().addAndGet(timer.getElapsedTimeMillis());
+
+        if (cache != null) {
+            cache.put(entity, new HashSet<>(getOntology().getAxioms()), satisfiable);
+        }
+        return satisfiable;
+    }
+
+    /**
+     * create an oracle with a new reasoner on the given ontology, sharing log and cache of this oracle
+     *
+     * @param ontology ontology to be reasoned by the new oracle
+     * @return new oracle, it should be disposed by the caller
+     */
+    public SatisfiabilityOracle derive(@Nonnull OWLOntology ontology) {
+        return new SatisfiabilityOracle(ReasonerFactory.getReasoner(ontology), log, cache);
+    }
+
+    public OWLOntology getOntology() {
+        return reasoner.getRootOntology();
+    }
+
+    public OWLReasoner getReasoner() {
+        return reasoner;
+    }
+
+    public void dispose() {
+        reasoner.dispose();
+    }
+}
@@ -0,0 +1,70 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits of the hitting set tree of an entity: number of checked nodes, cardinality of diagnoses and a deadline,
+ * which is the earlier one of the entity deadline and the deadline of the whole run.
+ * When a limit is reached the tree is not expanded anymore and the bug built from it is incomplete.
+ * <p>
+ * Limits are checked before expanding each edge, so a running reasoner call or MUPS search is not interrupted.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class SearchBudget {
+    private final int maxNodes;
+    private final int maxCardinality;
+    private final long deadline;
+    private final AtomicInteger nodes = new AtomicInteger(0);
+    /* no node is allowed after the node or time limit is reached */
+    private volatile boolean stopped = false;
+    private volatile boolean exhausted = false;
+
+    /**
+     * @param maxNodes       maximum number of nodes to be checked, 0 means no limit
+     * @param maxCardinality maximum cardinality of diagnoses, 0 means no limit
+     * @param timeLimit      time limit in seconds from now, 0 means no limit
+     * @param runDeadline    deadline of the whole run in {@link System#nanoTime()}, Long.MAX_VALUE means no deadline
+     */
+    public SearchBudget(int maxNodes, int maxCardinality, int timeLimit, long runDeadline) {
+        this.maxNodes = maxNodes;
+        this.maxCardinality = maxCardinality;
+        final long entityDeadline = timeLimit > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeLimit) : Long.MAX_VALUE;
+        this.deadline = Math.min(entityDeadline, runDeadline);
+    }
+
+    /**
+     * check whether a new node with the given path cardinality can be checked, the node is counted if it is allowed
+     *
+     * @param cardinality number of axioms in the path of the node
+     * @return false if a limit is reached
+     */
+    public boolean allowNode(int cardinality) {
+        if (stopped)
+            return false;
+        if (maxCardinality > 0 && cardinality > maxCardinality) {
+            // only this path is skipped, but longer diagnoses are not searched, so the found ones are not all of the diagnoses
+            exhausted = true;
+            return false;
+        }
+        if (maxNodes > 0 && nodes.incrementAndGet() > maxNodes || isExpired()) {
+            stopped = true;
+            exhausted = true;
+            return false;
+        }
+        return true;
+    }
+
+    public boolean isExpired() {
+        return deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * @return true if a node is skipped because of a limit
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+}
@@ -1,20 +1,17 @@
 package ir.ac.ui.ontodebugger.mups;
 
+import ir.ac.ui.ontodebugger.Configs;
+import ir.ac.ui.ontodebugger.util.MultiThreadProcess;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.semanticweb.owlapi.model.OWLAxiom;
-import org.semanticweb.owlapi.model.OWLEntity;
-import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.OWLOntologyManager;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static ir.ac.ui.ontodebugger.util.OntologyHelper.getClassDefinitionAxioms;
-import static ir.ac.ui.ontodebugger.util.OntologyHelper.isSatisfiable;
 
 /**
  * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
@@ -22,54 +19,86 @@ import static ir.ac.ui.ontodebugger.util.OntologyHelper.isSatisfiable;
  */
 public class SwoopMUPSFinder extends ExpandShrinkMUPSFinder {
     private static final Logger LOGGER = LogManager.getLogger(SwoopMUPSFinder.class);
+    private final boolean parallelShrink = Configs.getInstance().isPARALLEL_SHRINK();
 
+    public SwoopMUPSFinder(SatisfiabilityCache satisfiabilityCache) {
+        super(satisfiabilityCache);
+    }
+
+    /**
+     * Expand temp by relevance distance from the entity: axioms at distance k+1 are definition axioms of the entities
+     * that are newly reached by axioms at distance k. Only the frontier entities are visited at each distance,
+     * and axioms of the same distance are added in a deterministic order.
+     */
     @Override
-    protected boolean expand(OWLOntology ont, OWLEntity entity, OWLOntology temp, OWLReasoner reasoner, Set<MUPS> allMUPSs) {
+    protected boolean expand(OWLOntology ont, OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<MUPS> allMUPSs) {
         OWLOntologyManager m = temp.getOWLOntologyManager();
+        // axioms of more already found MUPSs are added first, ties are broken by natural order of axioms
+        final Comparator<OWLAxiom> order = byFrequency(getAxiomFrequencies(ont, allMUPSs)).reversed()
+                .thenComparing(Comparator.naturalOrder());
+        final Set<OWLEntity> reached = new HashSet<>();
+        reached.add(entity);
 
         // step 1: add class definition axioms of the clazz
-        final Set<OWLAxiom> classAxioms = getClassDefinitionAxioms(ont, entity);
-        m.addAxioms(temp, classAxioms);
-        boolean found = !isSatisfiable(reasoner, entity);
+        m.addAxioms(temp, new HashSet<>(getRelevantAxioms(ont, Collections.singleton(entity), temp, order)));
+        // temp may already include some axioms before expansion, they are at the same distance as step 1
+        List<OWLAxiom> relevant = new ArrayList<>(temp.getAxioms());
+        boolean found = !oracle.isSatisfiable(entity);
 
         int axiomLimit = 40;
-        boolean someAdded = true;
-        while (!found && someAdded) {
-            // step 2: add axioms related to clazz
-            Set<OWLAxiom> related = new HashSet<>();
-            temp.getClassesInSignature().stream().forEach(owlClass -> related.addAll(getClassDefinitionAxioms(ont, owlClass)));
-            related.removeAll(temp.getAxioms());
-
-            if (related.isEmpty())
-                someAdded = false;
-            else if (related.size() > axiomLimit) {
-                List<OWLAxiom> axioms = new ArrayList<>(related);
-                m.addAxioms(temp, new HashSet<>(axioms.subList(0, axiomLimit)));
-                axiomLimit *= 1.25;
-            } else {
-                m.addAxioms(temp, related);
+        while (!found) {
+            // step 2: add axioms of the entities reached in the previous step
+            final Set<OWLEntity> frontier = new HashSet<>();
+            relevant.forEach(axiom -> axiom.getSignature().stream()
+                    .filter(e -> e.isOWLClass() || e.isOWLObjectProperty())
+                    .filter(reached::add)
+                    .forEach(frontier::add));
+            relevant = getRelevantAxioms(ont, frontier, temp, order);
+            if (relevant.isEmpty())
+                break;
+
+            int index = 0;
+            while (!found && index < relevant.size()) {
+                final int next = Math.min(index + axiomLimit, relevant.size());
+                if (next < relevant.size())
+                    axiomLimit *= 1.25;
+                m.addAxioms(temp, new HashSet<>(relevant.subList(index, next)));
+                index = next;
+                found = !oracle.isSatisfiable(entity);
             }
-            found = !isSatisfiable(reasoner, entity);
         }
         return found;
     }
 
+    /**
+     * @return definition axioms of the entities which are not in temp yet, sorted by the given order
+     */
+    private static List<OWLAxiom> getRelevantAxioms(OWLOntology ont, Set<OWLEntity> entities, OWLOntology temp, Comparator<OWLAxiom> order) {
+        final Set<OWLAxiom> relevant = new HashSet<>();
+        entities.forEach(e -> relevant.addAll(getClassDefinitionAxioms(ont, e)));
+        return relevant.stream().filter(axiom -> !temp.containsAxiom(axiom)).sorted(order).collect(Collectors.toList());
+    }
+
     @Override
-    protected Set<OWLAxiom> shrink(OWLEntity entity, OWLOntology temp, OWLReasoner reasoner, Set<MUPS> allMUPSs) {
+    protected Set<OWLAxiom> shrink(OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, Set<MUPS> allMUPSs) {
         OWLOntologyManager m = temp.getOWLOntologyManager();
         Set<OWLAxiom> mups = new HashSet<>();
         final List<OWLAxiom> axioms = new ArrayList<>(temp.getAxioms());
+        // axioms of more already found MUPSs are more likely to be in this MUPS, so they are tested last
+        axioms.sort(byFrequency(getAxiomFrequencies(temp, allMUPSs)).thenComparing(Comparator.naturalOrder()));
 
         int pruneWindowSize = 10;
         // fast pruning
-        if (axioms.size() >= pruneWindowSize) {
+        if (parallelShrink && axioms.size() >= 2 * pruneWindowSize && MultiThreadProcess.forkJoinPool.getParallelism() > 1) {
+            parallelPruning(entity, temp, oracle, axioms, pruneWindowSize);
+        } else if (axioms.size() >= pruneWindowSize) {
             int index = 0;
             while (index < axioms.size()) {
                 Set<OWLAxiom> windowAxioms =
                         new HashSet<>(axioms.subList(index, Math.min(index + pruneWindowSize, axioms.size())));
 
                 m.removeAxioms(temp, windowAxioms);
-                if (isSatisfiable(reasoner, entity)) { // there is some part of mups in this part of the list, so go to prune next parts of the list
+                if (oracle.isSatisfiable(entity)) { // there is some part of mups in this part of the list, so go to prune next parts of the list
                     index += pruneWindowSize;
                     m.addAxioms(temp, windowAxioms);
                 } else {
@@ -84,7 +113,7 @@ public class SwoopMUPSFinder extends ExpandShrinkMUPSFinder {
         List<OWLAxiom> toBeRemoved = new ArrayList<>();
         for (OWLAxiom axiom : axioms) {
             m.removeAxiom(temp, axiom);
-            if (isSatisfiable(reasoner, entity)) { // there is some part of mups in this part of the list, so go to prune next parts of the list
+            if (oracle.isSatisfiable(entity)) { // there is some part of mups in this part of the list, so go to prune next parts of the list
                 m.addAxiom(temp, axiom);
             } else {
                 toBeRemoved.add(axiom);
@@ -95,4 +124,88 @@ public class SwoopMUPSFinder extends ExpandShrinkMUPSFinder {
         mups.addAll(axioms);
         return mups;
     }
+
+    /**
+     * Fast pruning which tests several disjoint windows concurrently, each one on a separate copy of temp with its own reasoner.
+     * Removal of the windows keeping the entity unsatisfiable is committed to temp and all of the copies.
+     *
+     * @param axioms axioms of temp, when the method returns it only includes axioms that are not pruned
+     */
+    private void parallelPruning(OWLEntity entity, OWLOntology temp, SatisfiabilityOracle oracle, List<OWLAxiom> axioms, int pruneWindowSize) {
+        final OWLOntologyManager m = temp.getOWLOntologyManager();
+        final Deque<Set<OWLAxiom>> windows = new ArrayDeque<>();
+        for (int index = 0; index < axioms.size(); index += pruneWindowSize) {
+            windows.add(new HashSet<>(axioms.subList(index, Math.min(index + pruneWindowSize, axioms.size()))));
+        }
+
+        final int workerCount = Math.min(MultiThreadProcess.forkJoinPool.getParallelism(), windows.size());
+        final List<SatisfiabilityOracle> workers = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            try {
+                workers.add(oracle.derive(OWLManager.createOWLOntologyManager().createOntology(temp.getAxioms())));
+            } catch (OWLOntologyCreationException e) {
+                LOGGER.catching(e);
+            }
+        }
+        if (workers.isEmpty()) {
+            return;
+        }
+
+        final List<OWLAxiom> kept = new ArrayList<>();
+        while (!windows.isEmpty()) {
+            final List<Set<OWLAxiom>> round = new ArrayList<>();
+            while (round.size() < workers.size() && !windows.isEmpty()) {
+                round.add(windows.poll());
+            }
+
+            final List<Boolean> removable = IntStream.range(0, round.size()).parallel()
+                    .mapToObj(i -> isRemovable(entity, workers.get(i), round.get(i)))
+                    .collect(Collectors.toList());
+
+            final List<Set<OWLAxiom>> removableWindows = new ArrayList<>();
+            for (int i = 0; i < round.size(); i++) {
+                if (removable.get(i)) {
+                    removableWindows.add(round.get(i));
+                } else { // there is some part of mups in this window, removing more axioms does not change it
+                    kept.addAll(round.get(i));
+                }
+            }
+            if (removableWindows.isEmpty()) {
+                continue;
+            }
+
+            Set<OWLAxiom> committed = new HashSet<>();
+            removableWindows.forEach(committed::addAll);
+            m.removeAxioms(temp, committed);
+            if (removableWindows.size() > 1 && oracle.isSatisfiable(entity)) {
+                // windows are removable one by one but not all together, so commit the first one and test others again
+                m.addAxioms(temp, committed);
+                committed = removableWindows.get(0);
+                m.removeAxioms(temp, committed);
+                for (int i = removableWindows.size() - 1; i > 0; i--) {
+                    windows.addFirst(removableWindows.get(i));
+                }
+            }
+            LOGGER.trace("{} axioms removed from pruning ontology in parallel.", committed.size());
+
+            final Set<OWLAxiom> removed = committed;
+            workers.forEach(worker -> worker.getOntology().getOWLOntologyManager().removeAxioms(worker.getOntology(), removed));
+        }
+
+        workers.forEach(worker -> {
+            final OWLOntology copy = worker.getOntology();
+            worker.dispose();
+            copy.getOWLOntologyManager().removeOntology(copy);
+        });
+        axioms.clear();
+        axioms.addAll(kept);
+    }
+
+    private boolean isRemovable(OWLEntity entity, SatisfiabilityOracle worker, Set<OWLAxiom> window) {
+        final OWLOntology copy = worker.getOntology();
+        copy.getOWLOntologyManager().removeAxioms(copy, window);
+        final boolean removable = !worker.isSatisfiable(entity);
+        copy.getOWLOntologyManager().addAxioms(copy, window);
+        return removable;
+    }
 }
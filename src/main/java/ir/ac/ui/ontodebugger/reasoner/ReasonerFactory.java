@@ -95,7 +95,7 @@ public class ReasonerFactory {
         return new NullReasonerProgressMonitor();
     }
 
-    private static OWLReasoner getPelletReasoner(OWLOntology ontology) {
+    public static PelletReasoner getPelletReasoner(OWLOntology ontology) {
         return new PelletReasoner(ontology, getSimpleConfiguration(), BufferingMode.BUFFERING);
     }
 
@@ -0,0 +1,160 @@
+package ir.ac.ui.ontodebugger.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable compact set of axiom ids (see {@link AxiomDictionary}) stored as bits of a long array.
+ * Adding or removing an id returns a new bit set, so instances can be shared between threads and tree nodes.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public final class AxiomBitSet {
+    private static final AxiomBitSet EMPTY = new AxiomBitSet(new long[0]);
+
+    /* trailing zero words are always trimmed, so equal sets have equal arrays */
+    private final long[] words;
+    private final int hash;
+
+    private AxiomBitSet(long[] words) {
+        this.words = words;
+        this.hash = Arrays.hashCode(words);
+    }
+
+    public static AxiomBitSet empty() {
+        return EMPTY;
+    }
+
+    public static AxiomBitSet of(int... ids) {
+        AxiomBitSet bitSet = EMPTY;
+        for (int id : ids) {
+            bitSet = bitSet.with(id);
+        }
+        return bitSet;
+    }
+
+    /**
+     * @return a bit set including the id and ids of this bit set
+     */
+    public AxiomBitSet with(int id) {
+        if (get(id))
+            return this;
+        final int index = id >>> 6;
+        final long[] copy = Arrays.copyOf(words, Math.max(words.length, index + 1));
+        copy[index] |= 1L << id;
+        return new AxiomBitSet(copy);
+    }
+
+    /**
+     * @return a bit set including ids of this bit set except the given id
+     */
+    public AxiomBitSet without(int id) {
+        if (!get(id))
+            return this;
+        final long[] copy = words.clone();
+        copy[id >>> 6] &= ~(1L << id);
+        int length = copy.length;
+        while (length > 0 && copy[length - 1] == 0) {
+            length--;
+        }
+        return new AxiomBitSet(length == copy.length ? copy : Arrays.copyOf(copy, length));
+    }
+
+    /**
+     * @return a bit set including ids of this bit set and the other one
+     */
+    public AxiomBitSet union(AxiomBitSet other) {
+        if (containsAll(other))
+            return this;
+        if (other.containsAll(this))
+            return other;
+        final long[] copy = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            copy[i] |= other.words[i];
+        }
+        return new AxiomBitSet(copy);
+    }
+
+    public boolean get(int id) {
+        final int index = id >>> 6;
+        return index < words.length && (words[index] & (1L << id)) != 0;
+    }
+
+    /**
+     * @return true if all of the ids of the other bit set are in this bit set
+     */
+    public boolean containsAll(AxiomBitSet other) {
+        if (other.words.length > words.length)
+            return false;
+        for (int i = 0; i < other.words.length; i++) {
+            if ((other.words[i] & ~words[i]) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if this bit set and the other one have a common id
+     */
+    public boolean intersects(AxiomBitSet other) {
+        final int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    /**
+     * @return ids of the bit set in ascending order
+     */
+    public IntStream stream() {
+        return IntStream.range(0, words.length).flatMap(index -> {
+            final IntStream.Builder builder = IntStream.builder();
+            long word = words[index];
+            while (word != 0) {
+                builder.add(index * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+            return builder.build();
+        });
+    }
+
+    public List<Integer> toList() {
+        final List<Integer> ids = new ArrayList<>(cardinality());
+        stream().forEach(ids::add);
+        return ids;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        return o instanceof AxiomBitSet && hash == ((AxiomBitSet) o).hash && Arrays.equals(words, ((AxiomBitSet) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -0,0 +1,68 @@
+package ir.ac.ui.ontodebugger.util;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import java.util.*;
+
+/**
+ * Immutable map between axioms of an ontology and dense int ids, so sets of the axioms can be stored as {@link AxiomBitSet}.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class AxiomDictionary {
+    private final Map<OWLAxiom, Integer> ids = new HashMap<>();
+    private final OWLAxiom[] axioms;
+
+    /**
+     * @param axioms axioms which get ids, usually all of the axioms of the ontology that is debugged
+     */
+    public AxiomDictionary(Collection<OWLAxiom> axioms) {
+        this.axioms = new OWLAxiom[axioms.size()];
+        int id = 0;
+        for (OWLAxiom axiom : axioms) {
+            if (ids.putIfAbsent(axiom, id) == null) {
+                this.axioms[id++] = axiom;
+            }
+        }
+    }
+
+    public int getId(OWLAxiom axiom) {
+        final Integer id = ids.get(axiom);
+        if (id == null)
+            throw new IllegalArgumentException("Axiom is not in the dictionary: " + axiom);
+        return id;
+    }
+
+    public OWLAxiom getAxiom(int id) {
+        return axioms[id];
+    }
+
+    public boolean contains(OWLAxiom axiom) {
+        return ids.containsKey(axiom);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public AxiomBitSet toBitSet(Collection<OWLAxiom> axiomSet) {
+        AxiomBitSet bitSet = AxiomBitSet.empty();
+        for (OWLAxiom axiom : axiomSet) {
+            bitSet = bitSet.with(getId(axiom));
+        }
+        return bitSet;
+    }
+
+    public Set<OWLAxiom> toAxioms(AxiomBitSet bitSet) {
+        final Set<OWLAxiom> axiomSet = new HashSet<>();
+        bitSet.stream().forEach(id -> axiomSet.add(axioms[id]));
+        return axiomSet;
+    }
+
+    public Set<Set<OWLAxiom>> toAxiomSets(Collection<AxiomBitSet> bitSets) {
+        final Set<Set<OWLAxiom>> axiomSets = new HashSet<>();
+        bitSets.forEach(bitSet -> axiomSets.add(toAxioms(bitSet)));
+        return axiomSets;
+    }
+}
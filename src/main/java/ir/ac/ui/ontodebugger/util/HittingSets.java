@@ -0,0 +1,48 @@
+package ir.ac.ui.ontodebugger.util;
+
+import java.util.*;
+
+/**
+ * Minimal hitting sets of a known collection of sets, without reasoning.
+ * They are computed by a breadth first hitting set tree whose node labels are the given sets,
+ * so each hitting set is found before its supersets and the supersets are pruned.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public final class HittingSets {
+
+    private HittingSets() {
+    }
+
+    /**
+     * @param sets       sets to be hit, e.g. MUPSs of an entity
+     * @param comparator total order of the elements, it should be consistent with equals
+     * @return all of the minimal hitting sets, e.g. diagnoses of the entity
+     */
+    public static <E> Set<Set<E>> minimal(Collection<? extends Set<E>> sets, Comparator<? super E> comparator) {
+        final Set<Set<E>> hittingSets = new HashSet<>();
+        final SetTrie<E> hittingSetIndex = new SetTrie<>(comparator);
+        Set<Set<E>> level = Collections.singleton(Collections.emptySet());
+        while (!level.isEmpty()) {
+            final Set<Set<E>> nextLevel = new HashSet<>();
+            for (Set<E> path : level) {
+                if (hittingSetIndex.containsSubsetOf(path))
+                    continue;
+                final Optional<? extends Set<E>> notHit = sets.stream().filter(set -> Collections.disjoint(set, path)).findFirst();
+                if (!notHit.isPresent()) {
+                    hittingSets.add(path);
+                    hittingSetIndex.add(path);
+                    continue;
+                }
+                for (E element : notHit.get()) {
+                    final Set<E> child = new HashSet<>(path);
+                    child.add(element);
+                    nextLevel.add(child);
+                }
+            }
+            level = nextLevel;
+        }
+        return hittingSets;
+    }
+}
@@ -0,0 +1,209 @@
+package ir.ac.ui.ontodebugger.util;
+
+import ir.ac.ui.ontodebugger.reasoner.ReasonerFactory;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Copy-on-write fork of an ontology: an immutable delta (removed and added axioms) over a shared immutable base.
+ * Creating a fork costs O(|delta|) instead of copying and indexing all of the axioms of the base.
+ * <p>
+ * A fork is materialized by checking out a {@link Workspace}, a working ontology with its reasoner.
+ * Workspaces are pooled per base and are synchronized to the checked out fork by applying only the difference
+ * of their current delta and the delta of the fork, so the number of ontology copies is bounded by the number
+ * of workspaces used at the same time. Forks are owned by their callers, the root fork should be disposed
+ * when its workspaces are not needed anymore.
+ *
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public final class OntologyFork {
+    private final Base base;
+    private final Set<OWLAxiom> removed;
+    private final Set<OWLAxiom> added;
+
+    /**
+     * create a root fork, the given axioms are the base of it and all of its descendant forks
+     */
+    public OntologyFork(Collection<OWLAxiom> axioms) {
+        this(new Base(axioms), Collections.emptySet(), Collections.emptySet());
+    }
+
+    private OntologyFork(Base base, Set<OWLAxiom> removed, Set<OWLAxiom> added) {
+        this.base = base;
+        this.removed = removed;
+        this.added = added;
+    }
+
+    /**
+     * @return a new fork which doesn't include the given axioms
+     */
+    public OntologyFork remove(Collection<OWLAxiom> axioms) {
+        final Set<OWLAxiom> newRemoved = new HashSet<>(removed);
+        final Set<OWLAxiom> newAdded = new HashSet<>(added);
+        for (OWLAxiom axiom : axioms) {
+            if (!newAdded.remove(axiom) && base.axioms.contains(axiom)) {
+                newRemoved.add(axiom);
+            }
+        }
+        return new OntologyFork(base, newRemoved, newAdded);
+    }
+
+    /**
+     * @return a new fork which includes the given axioms too
+     */
+    public OntologyFork add(Collection<OWLAxiom> axioms) {
+        final Set<OWLAxiom> newRemoved = new HashSet<>(removed);
+        final Set<OWLAxiom> newAdded = new HashSet<>(added);
+        for (OWLAxiom axiom : axioms) {
+            if (!newRemoved.remove(axiom) && !base.axioms.contains(axiom)) {
+                newAdded.add(axiom);
+            }
+        }
+        return new OntologyFork(base, newRemoved, newAdded);
+    }
+
+    public boolean containsAxiom(OWLAxiom axiom) {
+        return added.contains(axiom) || base.axioms.contains(axiom) && !removed.contains(axiom);
+    }
+
+    public int getAxiomCount() {
+        return base.axioms.size() - removed.size() + added.size();
+    }
+
+    /**
+     * @return axioms of the fork, it copies all of the axioms, so use {@link #containsAxiom(OWLAxiom)} if possible
+     */
+    public Set<OWLAxiom> getAxioms() {
+        final Set<OWLAxiom> axioms = new HashSet<>(base.axioms);
+        axioms.removeAll(removed);
+        axioms.addAll(added);
+        return axioms;
+    }
+
+    /**
+     * check out a workspace including exactly the axioms of this fork.
+     * Changes made to the ontology of the workspace which are not undone, e.g. by a failed caller,
+     * are undone when the workspace is checked out again.
+     *
+     * @return workspace which should be closed after use, so it can be reused by other forks of the same base
+     */
+    public Workspace checkout() {
+        Workspace workspace = base.idle.poll();
+        if (workspace == null) {
+            workspace = new Workspace(base);
+        }
+        workspace.syncTo(this);
+        return workspace;
+    }
+
+    /**
+     * dispose idle workspaces of the base, workspaces which are checked out are disposed when they are closed
+     */
+    public void dispose() {
+        base.disposed = true;
+        Workspace workspace;
+        while ((workspace = base.idle.poll()) != null) {
+            workspace.dispose();
+        }
+    }
+
+    private static class Base {
+        private final Set<OWLAxiom> axioms;
+        private final Queue<Workspace> idle = new ConcurrentLinkedQueue<>();
+        private volatile boolean disposed = false;
+
+        private Base(Collection<OWLAxiom> axioms) {
+            this.axioms = Collections.unmodifiableSet(new HashSet<>(axioms));
+        }
+    }
+
+    /**
+     * Working ontology and reasoner of a fork, it should be used by one thread at a time
+     */
+    public static final class Workspace implements AutoCloseable {
+        private final Base base;
+        private final OWLOntology ontology;
+        private OWLReasoner reasoner;
+        /* delta of the ontology w.r.t. the base, it is tracked by a listener, so it includes changes of the callers too */
+        private final Set<OWLAxiom> removed = new HashSet<>();
+        private final Set<OWLAxiom> added = new HashSet<>();
+
+        private Workspace(Base base) {
+            this.base = base;
+            try {
+                this.ontology = OWLManager.createOWLOntologyManager().createOntology(base.axioms);
+            } catch (OWLOntologyCreationException e) {
+                throw new RuntimeException(e);
+            }
+            // the manager is owned by the workspace, so all of its changes are changes of the workspace ontology
+            ontology.getOWLOntologyManager().addOntologyChangeListener(changes -> changes.forEach(this::track));
+        }
+
+        private void track(OWLOntologyChange change) {
+            if (change.isAddAxiom()) {
+                if (!removed.remove(change.getAxiom()))
+                    added.add(change.getAxiom());
+            } else if (change.isRemoveAxiom()) {
+                if (!added.remove(change.getAxiom()))
+                    removed.add(change.getAxiom());
+            }
+        }
+
+        private void syncTo(OntologyFork fork) {
+            final Set<OWLAxiom> toBeRemoved = new HashSet<>();
+            final Set<OWLAxiom> toBeAdded = new HashSet<>();
+            fork.removed.stream().filter(axiom -> !removed.contains(axiom)).forEach(toBeRemoved::add);
+            added.stream().filter(axiom -> !fork.added.contains(axiom)).forEach(toBeRemoved::add);
+            removed.stream().filter(axiom -> !fork.removed.contains(axiom)).forEach(toBeAdded::add);
+            fork.added.stream().filter(axiom -> !added.contains(axiom)).forEach(toBeAdded::add);
+
+            final OWLOntologyManager manager = ontology.getOWLOntologyManager();
+            if (!toBeRemoved.isEmpty())
+                manager.removeAxioms(ontology, toBeRemoved);
+            if (!toBeAdded.isEmpty())
+                manager.addAxioms(ontology, toBeAdded);
+            // changes of the callers may be applied to the ontology without flushing the reasoner too
+            if (reasoner != null && !reasoner.getPendingChanges().isEmpty())
+                reasoner.flush();
+        }
+
+        public OWLOntology getOntology() {
+            return ontology;
+        }
+
+        /**
+         * @return reasoner of the workspace ontology, it is disposed with the workspace, so callers should not dispose it
+         */
+        public OWLReasoner getReasoner() {
+            if (reasoner == null) {
+                reasoner = ReasonerFactory.getReasoner(ontology);
+            }
+            return reasoner;
+        }
+
+        @Override
+        public void close() {
+            if (base.disposed) {
+                dispose();
+            } else {
+                base.idle.add(this);
+                // the base may be disposed while this workspace is added to the idle workspaces
+                if (base.disposed && base.idle.remove(this)) {
+                    dispose();
+                }
+            }
+        }
+
+        private void dispose() {
+            if (reasoner != null) {
+                reasoner.dispose();
+            }
+            ontology.getOWLOntologyManager().removeOntology(ontology);
+        }
+    }
+}
@@ -107,12 +107,20 @@ public class OntologyHelper {
             return Collections.EMPTY_SET;
     }
 
+    /**
+     * check satisfiability of a single entity without classifying the whole ontology
+     *
+     * @param reasoner reasoner of the ontology, pending changes are flushed before the check
+     * @param entity   class or object property, an object property P is checked by satisfiability of some P Thing
+     * @return false if the entity is unsatisfiable
+     */
     public static boolean isSatisfiable(@Nonnull OWLReasoner reasoner, @Nonnull OWLEntity entity) {
         reasoner.flush();
+        final OWLDataFactory dataFactory = OWLManager.getOWLDataFactory();
         if (entity instanceof OWLClass)
-            return !reasoner.getUnsatisfiableClasses().contains((OWLClass) entity);
+            return reasoner.isSatisfiable((OWLClass) entity);
         else if (entity instanceof OWLObjectProperty)
-            return !reasoner.getEquivalentObjectProperties(OWLManager.getOWLDataFactory().getOWLBottomObjectProperty()).getEntitiesMinusBottom().contains(entity);
+            return reasoner.isSatisfiable(dataFactory.getOWLObjectSomeValuesFrom((OWLObjectProperty) entity, dataFactory.getOWLThing()));
         else
             return true;
     }
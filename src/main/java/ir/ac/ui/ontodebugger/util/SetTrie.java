@@ -0,0 +1,104 @@
+package ir.ac.ui.ontodebugger.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent set-trie which stores sets as sorted paths of their elements.
+ * It answers whether a set is stored or whether some stored set is a subset of a given set
+ * by walking only the elements of the given set, instead of scanning all of the stored sets.
+ * <p>
+ * All of the methods are thread-safe and lock free.
+ *
+ * @param <E> type of the elements
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class SetTrie<E> {
+    private final Comparator<? super E> comparator;
+    private final Node<E> root;
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * @param comparator total order of the elements, it should be consistent with equals
+     */
+    public SetTrie(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        this.root = new Node<>(comparator);
+    }
+
+    /**
+     * add a set to the trie
+     *
+     * @return true if the set was not already stored
+     */
+    public boolean add(Collection<E> set) {
+        Node<E> node = root;
+        for (E element : sort(set)) {
+            node = node.children.computeIfAbsent(element, key -> new Node<>(comparator));
+        }
+        final boolean added = node.end.compareAndSet(false, true);
+        if (added)
+            size.incrementAndGet();
+        return added;
+    }
+
+    /**
+     * @return true if exactly the given set is stored
+     */
+    public boolean contains(Collection<E> set) {
+        Node<E> node = root;
+        for (E element : sort(set)) {
+            node = node.children.get(element);
+            if (node == null)
+                return false;
+        }
+        return node.end.get();
+    }
+
+    /**
+     * @return true if some stored set (including the set itself) is a subset of the given set
+     */
+    public boolean containsSubsetOf(Collection<E> set) {
+        return containsSubsetOf(root, sort(set), 0);
+    }
+
+    private boolean containsSubsetOf(Node<E> node, List<E> elements, int from) {
+        if (node.end.get())
+            return true;
+        for (int i = from; i < elements.size(); i++) {
+            final Node<E> child = node.children.get(elements.get(i));
+            if (child != null && containsSubsetOf(child, elements, i + 1))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of stored sets
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private List<E> sort(Collection<E> set) {
+        final List<E> elements = new ArrayList<>(set);
+        elements.sort(comparator);
+        return elements;
+    }
+
+    private static class Node<E> {
+        private final ConcurrentSkipListMap<E, Node<E>> children;
+        private final AtomicBoolean end = new AtomicBoolean(false);
+
+        private Node(Comparator<? super E> comparator) {
+            this.children = new ConcurrentSkipListMap<>(comparator);
+        }
+    }
+}
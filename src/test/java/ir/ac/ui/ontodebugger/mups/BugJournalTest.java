@@ -0,0 +1,123 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import ir.ac.ui.ontodebugger.Bug;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class BugJournalTest {
+    private final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+    private final OWLClass a = getOWLClass("A");
+    private final OWLClass b = getOWLClass("B");
+    private final OWLAxiom aSubB = factory.getOWLSubClassOfAxiom(a, b);
+    private final OWLAxiom bSubC = factory.getOWLSubClassOfAxiom(b, getOWLClass("C"));
+    private final OWLAxiom missing = factory.getOWLSubClassOfAxiom(a, getOWLClass("D"));
+    private OWLOntology ontology;
+    private File file;
+
+    private OWLClass getOWLClass(String name) {
+        return factory.getOWLClass(IRI.create("urn:test#" + name));
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        ontology = OWLManager.createOWLOntologyManager().createOntology(new HashSet<>(Arrays.asList(aSubB, bSubC)));
+        file = File.createTempFile("bug", "-journal.txt");
+        assertTrue(file.delete(), "temporary journal is not deleted");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private BugJournal openJournal() {
+        final BugJournal journal = new BugJournal(file, 0);
+        journal.open(ontology);
+        return journal;
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        BugJournal journal = openJournal();
+        journal.recordBug(new Bug(a, Collections.emptySet(), Collections.singleton(Collections.singleton(aSubB))), 10);
+        // the first checkpoint of an entity only starts its interval
+        journal.checkpoint(b, Collections.emptyList(), () -> Collections.singleton(Collections.singleton(bSubC)));
+        journal.checkpoint(b, Collections.emptyList(), () -> Collections.singleton(Collections.singleton(bSubC)));
+        journal.close();
+
+        journal = openJournal();
+        final BugJournal.Entry bug = journal.getCompletedBug(a);
+        assertNotNull(bug, "completed bug is not loaded");
+        assertEquals(bug.diagnoses, Collections.singleton(Collections.singleton(aSubB)), "diagnoses of the bug are not loaded");
+        assertNull(journal.getCheckpoint(a), "completed bug is loaded as a checkpoint");
+        final BugJournal.Entry checkpoint = journal.getCheckpoint(b);
+        assertNotNull(checkpoint, "checkpoint is not loaded");
+        assertEquals(checkpoint.diagnoses, Collections.singleton(Collections.singleton(bSubC)), "diagnoses of the checkpoint are not loaded");
+        assertNull(journal.getCompletedBug(b), "checkpoint is loaded as a completed bug");
+        journal.close();
+    }
+
+    @Test
+    public void testUnresolvedRecordIsDropped() throws Exception {
+        final BugJournal journal = openJournal();
+        journal.recordBug(new Bug(a, Collections.emptySet(), new HashSet<>(Arrays.asList(
+                Collections.singleton(aSubB), Collections.singleton(missing)))), 10);
+        journal.recordBug(new Bug(b, Collections.emptySet(), Collections.singleton(Collections.singleton(bSubC))), 10);
+        journal.close();
+
+        journal.open(ontology);
+        assertNull(journal.getCompletedBug(a), "record with an axiom which is not in the ontology is loaded");
+        assertNull(journal.getCheckpoint(a), "record with an axiom which is not in the ontology is loaded as a checkpoint");
+        assertNotNull(journal.getCompletedBug(b), "resolved record is not loaded");
+        journal.close();
+    }
+
+    @Test
+    public void testCutRecordIsIgnored() throws Exception {
+        BugJournal journal = openJournal();
+        journal.recordBug(new Bug(a, Collections.emptySet(), Collections.singleton(Collections.singleton(aSubB))), 10);
+        journal.close();
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        // the record of b is cut before its END line
+        Files.write(file.toPath(), Collections.singletonList(lines.get(1).replace(a.toString(), b.toString())),
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        journal = openJournal();
+        assertNotNull(journal.getCompletedBug(a), "complete record is not loaded");
+        assertNull(journal.getCompletedBug(b), "cut record is loaded");
+        journal.close();
+    }
+
+    @Test
+    public void testJournalOfAnotherOntologyIsDiscarded() throws Exception {
+        BugJournal journal = openJournal();
+        journal.recordBug(new Bug(a, Collections.emptySet(), Collections.singleton(Collections.singleton(aSubB))), 10);
+        journal.close();
+
+        ontology.getOWLOntologyManager().addAxiom(ontology, missing);
+        journal = openJournal();
+        assertNull(journal.getCompletedBug(a), "journal of another ontology is loaded");
+        journal.recordBug(new Bug(b, Collections.emptySet(), Collections.singleton(Collections.singleton(bSubC))), 10);
+        journal.close();
+
+        journal = openJournal();
+        assertNull(journal.getCompletedBug(a), "records of the discarded journal are kept");
+        assertNotNull(journal.getCompletedBug(b), "journal of the edited ontology is not resumed");
+        journal.close();
+    }
+}
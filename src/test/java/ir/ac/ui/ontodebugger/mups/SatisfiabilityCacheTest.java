@@ -0,0 +1,88 @@
+package ir.ac.ui.ontodebugger.mups;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class SatisfiabilityCacheTest {
+    private final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+    private final OWLClass entity = factory.getOWLClass(IRI.create("urn:test#A"));
+
+    private OWLAxiom subClassAxiom(String superClass) {
+        return factory.getOWLSubClassOfAxiom(entity, factory.getOWLClass(IRI.create("urn:test#" + superClass)));
+    }
+
+    /**
+     * an axiom which is equal only to itself and whose hash code is the given one
+     */
+    private static OWLAxiom collidingAxiom(int hashCode) {
+        return (OWLAxiom) Proxy.newProxyInstance(OWLAxiom.class.getClassLoader(), new Class<?>[]{OWLAxiom.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return hashCode;
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "Axiom" + System.identityHashCode(proxy);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    public void testHashCollision() throws Exception {
+        final SatisfiabilityCache cache = new SatisfiabilityCache(10);
+        final Set<OWLAxiom> unsatisfiable = Collections.singleton(collidingAxiom(42));
+        final Set<OWLAxiom> colliding = Collections.singleton(collidingAxiom(42));
+        cache.put(entity, unsatisfiable, false);
+
+        assertEquals(cache.get(entity, unsatisfiable), Boolean.FALSE, "cached result is not found");
+        assertNull(cache.get(entity, colliding), "result of another axiom set with the same fingerprint is returned");
+    }
+
+    @Test
+    public void testMonotonicity() throws Exception {
+        final SatisfiabilityCache cache = new SatisfiabilityCache(10);
+        final OWLAxiom b = subClassAxiom("B");
+        final OWLAxiom c = subClassAxiom("C");
+        final OWLAxiom d = subClassAxiom("D");
+        cache.put(entity, new HashSet<>(Arrays.asList(b, c)), false);
+        cache.put(entity, Collections.singleton(d), true);
+
+        assertEquals(cache.get(entity, new HashSet<>(Arrays.asList(b, c, d))), Boolean.FALSE, "superset of unsatisfiable set is not unsatisfiable");
+        assertEquals(cache.get(entity, Collections.emptySet()), Boolean.TRUE, "subset of satisfiable set is not satisfiable");
+        assertNull(cache.get(entity, Collections.singleton(b)), "unknown axiom set is answered");
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final SatisfiabilityCache cache = new SatisfiabilityCache(2);
+        final Set<OWLAxiom> first = Collections.singleton(subClassAxiom("B"));
+        final Set<OWLAxiom> second = Collections.singleton(subClassAxiom("C"));
+        final Set<OWLAxiom> third = Collections.singleton(subClassAxiom("D"));
+        cache.put(entity, first, false);
+        cache.put(entity, second, false);
+        cache.put(entity, third, false);
+
+        assertEquals(cache.size(), 2, "capacity of the cache is exceeded");
+        assertNull(cache.get(entity, first), "the oldest axiom set is not evicted");
+        final Set<OWLAxiom> firstSuperset = new HashSet<>(first);
+        firstSuperset.add(subClassAxiom("E"));
+        assertNull(cache.get(entity, firstSuperset), "evicted axiom set is still used by monotonicity");
+        assertEquals(cache.get(entity, third), Boolean.FALSE, "the newest axiom set is evicted");
+    }
+}
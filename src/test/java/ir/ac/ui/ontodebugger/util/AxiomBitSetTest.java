@@ -0,0 +1,56 @@
+package ir.ac.ui.ontodebugger.util;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class AxiomBitSetTest {
+
+    @Test
+    public void testWithAndWithout() throws Exception {
+        final AxiomBitSet empty = AxiomBitSet.empty();
+        final AxiomBitSet bitSet = empty.with(3).with(70).with(130);
+
+        assertTrue(empty.isEmpty(), "adding ids changed the empty bit set");
+        assertEquals(bitSet.cardinality(), 3, "cardinality is not counted well");
+        assertTrue(bitSet.get(70), "added id is not in the bit set");
+        assertFalse(bitSet.get(69), "not added id is in the bit set");
+        assertSame(bitSet.with(3), bitSet, "adding an existing id created a new bit set");
+
+        final AxiomBitSet removed = bitSet.without(130);
+        assertFalse(removed.get(130), "removed id is still in the bit set");
+        assertTrue(bitSet.get(130), "removing an id changed the original bit set");
+        assertEquals(removed, AxiomBitSet.of(70, 3), "trailing words are not trimmed after removing an id");
+        assertEquals(removed.hashCode(), AxiomBitSet.of(3, 70).hashCode(), "equal bit sets have different hash codes");
+        assertTrue(AxiomBitSet.of(5).without(5).isEmpty(), "bit set is not empty after removing its only id");
+    }
+
+    @Test
+    public void testSetOperations() throws Exception {
+        final AxiomBitSet path = AxiomBitSet.of(1, 64, 200);
+
+        assertTrue(path.containsAll(AxiomBitSet.of(1, 200)), "subset is not contained");
+        assertTrue(path.containsAll(AxiomBitSet.empty()), "empty set is not contained");
+        assertFalse(path.containsAll(AxiomBitSet.of(1, 2)), "set with an extra id is contained");
+        assertFalse(AxiomBitSet.of(1).containsAll(path), "longer set is contained in a shorter one");
+
+        assertTrue(path.intersects(AxiomBitSet.of(64, 65)), "common id is not detected");
+        assertFalse(path.intersects(AxiomBitSet.of(2, 300)), "disjoint sets intersect");
+
+        assertEquals(path.union(AxiomBitSet.of(2, 300)), AxiomBitSet.of(1, 2, 64, 200, 300), "union doesn't include all ids");
+        assertSame(path.union(AxiomBitSet.of(64)), path, "union with a subset created a new bit set");
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        assertEquals(AxiomBitSet.of(200, 0, 63, 64).toList(), Arrays.asList(0, 63, 64, 200), "ids are not listed in order");
+        assertEquals(AxiomBitSet.empty().toList(), Collections.emptyList(), "empty bit set has some ids");
+    }
+}
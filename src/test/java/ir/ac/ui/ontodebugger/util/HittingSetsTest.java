@@ -0,0 +1,34 @@
+package ir.ac.ui.ontodebugger.util;
+
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class HittingSetsTest {
+
+    private static Set<Integer> setOf(Integer... elements) {
+        return new HashSet<>(Arrays.asList(elements));
+    }
+
+    @Test
+    public void testMinimal() throws Exception {
+        final List<Set<Integer>> sets = Arrays.asList(setOf(1, 2), setOf(2, 3), setOf(3, 4));
+        final Set<Set<Integer>> expected = new HashSet<>(Arrays.asList(setOf(2, 3), setOf(1, 3), setOf(2, 4)));
+
+        assertEquals(HittingSets.minimal(sets, Comparator.naturalOrder()), expected, "minimal hitting sets are not found well");
+    }
+
+    @Test
+    public void testTrivialCases() throws Exception {
+        assertEquals(HittingSets.minimal(Collections.<Set<Integer>>emptyList(), Comparator.naturalOrder()),
+                Collections.singleton(Collections.emptySet()), "empty set is not the hitting set of no sets");
+        assertTrue(HittingSets.minimal(Arrays.asList(setOf(1), Collections.<Integer>emptySet()), Comparator.naturalOrder()).isEmpty(),
+                "empty set is hit");
+    }
+}
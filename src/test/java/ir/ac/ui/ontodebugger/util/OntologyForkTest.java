@@ -0,0 +1,58 @@
+package ir.ac.ui.ontodebugger.util;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class OntologyForkTest {
+    private final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+
+    private OWLAxiom subClassAxiom(String subClass, String superClass) {
+        return factory.getOWLSubClassOfAxiom(factory.getOWLClass(IRI.create("urn:test#" + subClass)),
+                factory.getOWLClass(IRI.create("urn:test#" + superClass)));
+    }
+
+    @Test
+    public void testCheckout() throws Exception {
+        final OWLAxiom ab = subClassAxiom("A", "B");
+        final OWLAxiom bc = subClassAxiom("B", "C");
+        final OWLAxiom cd = subClassAxiom("C", "D");
+        final OntologyFork root = new OntologyFork(Arrays.asList(ab, bc));
+        final OntologyFork child = root.remove(Collections.singleton(ab)).add(Collections.singleton(cd));
+
+        assertEquals(child.getAxioms(), new HashSet<>(Arrays.asList(bc, cd)), "axioms of the fork are not correct");
+        try (OntologyFork.Workspace workspace = child.checkout()) {
+            assertEquals(workspace.getOntology().getAxioms(), child.getAxioms(), "workspace is not synchronized to the fork");
+        }
+        try (OntologyFork.Workspace workspace = root.checkout()) {
+            assertEquals(workspace.getOntology().getAxioms(), root.getAxioms(), "reused workspace is not synchronized to the fork");
+        }
+        root.dispose();
+    }
+
+    @Test
+    public void testChangesOfCallersAreUndone() throws Exception {
+        final OWLAxiom ab = subClassAxiom("A", "B");
+        final OWLAxiom bc = subClassAxiom("B", "C");
+        final OntologyFork root = new OntologyFork(Arrays.asList(ab, bc));
+
+        try (OntologyFork.Workspace workspace = root.checkout()) {
+            // a failed caller may not undo its changes
+            final OWLOntology ontology = workspace.getOntology();
+            ontology.getOWLOntologyManager().removeAxiom(ontology, ab);
+            ontology.getOWLOntologyManager().addAxiom(ontology, subClassAxiom("C", "D"));
+        }
+        try (OntologyFork.Workspace workspace = root.checkout()) {
+            assertEquals(workspace.getOntology().getAxioms(), root.getAxioms(), "changes of the previous caller are not undone");
+        }
+        root.dispose();
+    }
+}
@@ -0,0 +1,65 @@
+package ir.ac.ui.ontodebugger.util;
+
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Mehdi Teymourlouie <mehdi.teymourlouie@gmail.com>
+ * created on 10/18/26.
+ */
+public class SetTrieTest {
+
+    private static Set<Integer> setOf(Integer... elements) {
+        return new HashSet<>(Arrays.asList(elements));
+    }
+
+    @Test
+    public void testAddAndContains() throws Exception {
+        SetTrie<Integer> trie = new SetTrie<>(Comparator.naturalOrder());
+        assertTrue(trie.isEmpty(), "new trie is not empty");
+
+        assertTrue(trie.add(setOf(3, 1, 2)), "new set is not added");
+        assertFalse(trie.add(setOf(1, 2, 3)), "same set is added twice");
+        assertEquals(trie.size(), 1, "size is not counted well");
+
+        assertTrue(trie.contains(setOf(2, 3, 1)), "stored set is not found");
+        assertFalse(trie.contains(setOf(1, 2)), "prefix of a stored set is found as a stored set");
+        assertFalse(trie.contains(setOf(1, 2, 3, 4)), "superset of a stored set is found as a stored set");
+    }
+
+    @Test
+    public void testContainsSubsetOf() throws Exception {
+        SetTrie<Integer> trie = new SetTrie<>(Comparator.naturalOrder());
+        trie.add(setOf(2, 5));
+        trie.add(setOf(1, 3, 4));
+
+        assertTrue(trie.containsSubsetOf(setOf(2, 5)), "set itself is not found as a subset");
+        assertTrue(trie.containsSubsetOf(setOf(1, 2, 3, 5)), "subset {2, 5} is not found");
+        assertTrue(trie.containsSubsetOf(setOf(0, 1, 3, 4, 6)), "subset {1, 3, 4} is not found");
+        assertFalse(trie.containsSubsetOf(setOf(1, 2, 3)), "no stored set is a subset of {1, 2, 3}");
+        assertFalse(trie.containsSubsetOf(Collections.emptySet()), "empty set has a stored subset");
+
+        trie.add(Collections.emptySet());
+        assertTrue(trie.containsSubsetOf(setOf(7)), "empty set is not found as a subset");
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        SetTrie<Integer> trie = new SetTrie<>(Comparator.naturalOrder());
+        final long added = IntStream.range(0, 1000).parallel()
+                .mapToObj(i -> setOf(i % 100, i % 7))
+                .filter(trie::add)
+                .count();
+
+        final Set<Set<Integer>> distinct = IntStream.range(0, 1000)
+                .mapToObj(i -> setOf(i % 100, i % 7))
+                .collect(Collectors.toSet());
+        assertEquals(added, distinct.size(), "a set is added more than once");
+        assertEquals(trie.size(), distinct.size(), "size is not counted well in parallel");
+    }
+}